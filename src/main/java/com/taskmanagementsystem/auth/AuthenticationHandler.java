@@ -6,13 +6,20 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
 
 public class AuthenticationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(AuthenticationHandler.class);
     private final ObjectMapper mapper = new ObjectMapper();
     private final AuthenticationService authenticationService = new AuthenticationService();
 
+    public AuthenticationHandler() {
+        initTimer.stop();
+    }
+
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        initTimer.report(context);
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
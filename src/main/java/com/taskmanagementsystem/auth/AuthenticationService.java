@@ -1,6 +1,7 @@
 package com.taskmanagementsystem.auth;
 
-import software.amazon.awssdk.regions.Region;
+import com.taskmanagementsystem.util.AwsClients;
+
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
 
@@ -10,13 +11,9 @@ import static software.amazon.awssdk.services.cognitoidentityprovider.model.Auth
 
 public class AuthenticationService {
     private final String CLIENT_ID = System.getenv("USER_POOL_CLIENT_ID");
-    private final String REGION = System.getenv("REGION");
+    private final CognitoIdentityProviderClient cognitoClient = AwsClients.cognito();
 
     public Map<String, String> login(String email, String password) {
-        var cognitoClient = CognitoIdentityProviderClient.builder()
-                .region(Region.of(REGION))
-                .build();
-
         var authParams = Map.of(
                 "USERNAME", email,
                 "PASSWORD", password
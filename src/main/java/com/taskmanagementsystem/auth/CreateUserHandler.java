@@ -3,8 +3,6 @@ package com.taskmanagementsystem.auth;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -12,10 +10,13 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.DTO.CreateUserRequest;
 import com.taskmanagementsystem.entities.Users;
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.IdempotencyService;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.InitTimer;
 import com.taskmanagementsystem.util.PasswordGenerator;
+import com.taskmanagementsystem.util.UserUtils;
 
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserResponse;
@@ -26,34 +27,33 @@ import software.amazon.awssdk.services.sfn.SfnClient;
 import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
 
 public class CreateUserHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(CreateUserHandler.class);
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final CognitoIdentityProviderClient cognitoClient = CognitoIdentityProviderClient.builder()
-            .region(Region.of(System.getenv("REGION")))
-            .build();
+    private final CognitoIdentityProviderClient cognitoClient = AwsClients.cognito();
 
-    private final DynamoDBMapper dynamoDBMapper;
+    private final UserRepository userRepository = new UserRepository();
+
+    private final IdempotencyService idempotencyService = new IdempotencyService();
     
-    private final SfnClient sfnClient = SfnClient.builder()
-            .region(Region.of(System.getenv("REGION")))
-            .build();
+    private final SfnClient sfnClient = AwsClients.sfn();
     
     private final String userPoolId = System.getenv("USER_POOL_ID");
-    private final String userTableName = System.getenv("USER_TABLE");
     private final String userOnboardingStateMachineArn = System.getenv("USER_ONBOARDING_STATE_MACHINE_ARN");
     
     public CreateUserHandler() {
-        // Initialize DynamoDBMapper
-        DynamoDBMapperConfig mapperConfig = DynamoDBMapperConfig.builder()
-        .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(userTableName))
-        .build();
-
-        dynamoDBMapper = new DynamoDBMapper(DynamoDBUtil.getDynamoDBClient(), mapperConfig);
+        initTimer.stop();
     }
     
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        initTimer.report(context);
+        // A retried request with the same Idempotency-Key gets the first response back
+        return idempotencyService.execute(input, context, () -> createUser(input, context));
+    }
+
+    private APIGatewayProxyResponseEvent createUser(APIGatewayProxyRequestEvent input, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         
         try {
@@ -108,7 +108,7 @@ public class CreateUserHandler implements RequestHandler<APIGatewayProxyRequestE
             headers.put("Content-Type", "application/json");
             headers.put("Access-Control-Allow-Origin", "*");
             headers.put("Access-Control-Allow-Methods", "POST, OPTIONS");
-            headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key");
+            headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key,Idempotency-Key");
             response.setHeaders(headers);
 
         } catch (UserNotFoundException e) {
@@ -170,7 +170,9 @@ public class CreateUserHandler implements RequestHandler<APIGatewayProxyRequestE
         user.setUpdatedAt(System.currentTimeMillis());
 
         // Save the user to DynamoDB
-        dynamoDBMapper.save(user);
+        userRepository.save(user);
+        // Forget any cached "not found" for this email in this container
+        UserUtils.invalidateUser(user.getEmail());
 
         return user;
     }
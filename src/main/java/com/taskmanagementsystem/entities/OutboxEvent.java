@@ -0,0 +1,82 @@
+package com.taskmanagementsystem.entities;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A notification waiting to be delivered, written to the Outbox table in the same transaction
+ * as the task change it reports. Mapped by {@link com.taskmanagementsystem.repository.OutboxRepository}
+ * and delivered by {@link com.taskmanagementsystem.notifications.OutboxRelayHandler}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String SNS = "sns";
+    public static final String SQS = "sqs";
+    public static final String WORKFLOW = "sfn";
+
+    private String eventId;
+
+    // SNS, SQS or WORKFLOW
+    private String channel;
+
+    // Topic ARN, queue URL or state machine ARN
+    private String destination;
+
+    private String subject;
+
+    private String message;
+
+    // SNS message attributes
+    private Map<String, String> attributes;
+
+    // FIFO queues only
+    private String messageGroupId;
+
+    private Long createdAt;
+
+    public static OutboxEvent sns(String topicArn, String subject, String message, Map<String, String> attributes) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .channel(SNS)
+                .destination(topicArn)
+                .subject(subject)
+                .message(message)
+                .attributes(attributes)
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * One item of a workflow's "tasks" input. The relay starts one execution per state machine
+     * for all the items it reads together.
+     */
+    public static OutboxEvent workflow(String stateMachineArn, String itemJson) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .channel(WORKFLOW)
+                .destination(stateMachineArn)
+                .message(itemJson)
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+    public static OutboxEvent sqs(String queueUrl, String messageBody, String messageGroupId) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .channel(SQS)
+                .destination(queueUrl)
+                .message(messageBody)
+                .messageGroupId(messageGroupId)
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+}
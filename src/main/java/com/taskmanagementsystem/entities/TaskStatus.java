@@ -0,0 +1,90 @@
+package com.taskmanagementsystem.entities;
+
+import java.util.Set;
+
+/**
+ * Status values stored on task items.
+ *
+ * Older items may still hold "OPEN" (written by the create endpoint) or "complete"
+ * (written by the assignee update path), so comparisons go through the helpers below.
+ */
+public final class TaskStatus {
+
+    public static final String OPEN = "open";
+    public static final String COMPLETED = "completed";
+    public static final String EXPIRED = "expired";
+    public static final String CLOSED = "closed";
+
+    public static final String LEGACY_OPEN = "OPEN";
+    public static final String LEGACY_COMPLETE = "complete";
+
+    private static final Set<String> OPEN_STATUSES = Set.of(OPEN, LEGACY_OPEN);
+    private static final Set<String> ALL_STATUSES = Set.of(OPEN, LEGACY_OPEN, COMPLETED, LEGACY_COMPLETE, EXPIRED, CLOSED);
+
+    private TaskStatus() {
+    }
+
+    /**
+     * Maps a status sent by a client, including the legacy spellings, to the value stored on new items.
+     *
+     * @return the canonical status, or null if it is not a known status
+     */
+    public static String canonical(String status) {
+        if (status == null) {
+            return null;
+        }
+        if (isOpen(status)) {
+            return OPEN;
+        }
+        if (isCompleted(status)) {
+            return COMPLETED;
+        }
+        if (EXPIRED.equalsIgnoreCase(status)) {
+            return EXPIRED;
+        }
+        if (CLOSED.equalsIgnoreCase(status)) {
+            return CLOSED;
+        }
+        return null;
+    }
+
+    /**
+     * Stored statuses, legacy spellings included, that a task may move to the given status from.
+     * Any task can be reopened; only open tasks can be completed or expire.
+     */
+    public static Set<String> allowedPrevious(String target) {
+        switch (target) {
+            case OPEN:
+                return ALL_STATUSES;
+            case COMPLETED:
+            case EXPIRED:
+                return OPEN_STATUSES;
+            case CLOSED:
+                return Set.of(OPEN, LEGACY_OPEN, COMPLETED, LEGACY_COMPLETE, EXPIRED);
+            default:
+                throw new IllegalArgumentException("Unknown status: " + target);
+        }
+    }
+
+    /**
+     * Values a task with the given canonical status may have stored, legacy spellings included.
+     */
+    public static Set<String> storedValues(String status) {
+        switch (status) {
+            case OPEN:
+                return OPEN_STATUSES;
+            case COMPLETED:
+                return Set.of(COMPLETED, LEGACY_COMPLETE);
+            default:
+                return Set.of(status);
+        }
+    }
+
+    public static boolean isOpen(String status) {
+        return OPEN.equalsIgnoreCase(status);
+    }
+
+    public static boolean isCompleted(String status) {
+        return COMPLETED.equalsIgnoreCase(status) || LEGACY_COMPLETE.equalsIgnoreCase(status);
+    }
+}
@@ -1,69 +1,61 @@
 package com.taskmanagementsystem.entities;
 
-import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * A task item. Mapped to and from DynamoDB by {@link com.taskmanagementsystem.repository.TaskRepository}.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@DynamoDBTable(tableName = "")
 public class Tasks {
-    static {
-        String tableName = System.getenv("TASK_TABLE");
-        if (tableName != null && !tableName.isEmpty()) {
-            DynamoDBMapperConfig.Builder builder = DynamoDBMapperConfig.builder();
-            builder.setTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName));
-            builder.build();
-        }
-    }
-
-    @DynamoDBHashKey
-    @DynamoDBAutoGeneratedKey
+
     private String taskId;
 
-    @DynamoDBAttribute
     private String name;
 
-    @DynamoDBAttribute
     private String description;
 
-    @DynamoDBAttribute
     private String status;
 
-    @DynamoDBAttribute
     private Long deadline;
 
-    @DynamoDBAttribute
     private String responsibility;
 
-    @DynamoDBAttribute
     private String assignedUserEmail;
 
-    @DynamoDBAttribute
+    // Denormalized from the Users table so notifications can filter on it without a lookup
+    private String assignedUserId;
+
     private Long completedAt;
 
-    @DynamoDBAttribute
+    // Set when the expiry sweep expires the task. Tasks expired by the old state machine carry
+    // expired_at (an ISO-8601 string) instead, which is not read
+    private Long expiredAt;
+
     private String userComment;
 
-    @DynamoDBAttribute
     private String createdBy;
 
-    @DynamoDBAttribute
     private Long createdAt;
 
-    @DynamoDBAttribute
     private Long updatedAt;
 
-    @DynamoDBAttribute
     private Boolean isClosed;
 
-    @DynamoDBAttribute
     private String closedAt;
 
-    @DynamoDBAttribute
     private String adminComment;
+
+    // Incremented on every partial update; items written before versioning have none (treated as 0)
+    private Long version;
+
+    // Sparse OpenDeadlineIndex partition key, only present while the task is open
+    @JsonIgnore
+    private String openDeadlineBucket;
 }
\ No newline at end of file
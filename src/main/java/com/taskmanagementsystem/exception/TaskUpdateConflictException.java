@@ -0,0 +1,25 @@
+package com.taskmanagementsystem.exception;
+
+import com.taskmanagementsystem.entities.Tasks;
+
+/**
+ * Thrown when a conditional task update is rejected because the stored task no longer matches
+ * what the update expected: it is missing, assigned to someone else, in a status the update may
+ * not move it from, or at a different version.
+ */
+public class TaskUpdateConflictException extends RuntimeException {
+
+    private final Tasks currentTask;
+
+    public TaskUpdateConflictException(Tasks currentTask) {
+        super(currentTask == null ? "Task does not exist" : "Task update condition failed");
+        this.currentTask = currentTask;
+    }
+
+    /**
+     * The task as it was when the update was rejected, or null if it does not exist.
+     */
+    public Tasks getCurrentTask() {
+        return currentTask;
+    }
+}
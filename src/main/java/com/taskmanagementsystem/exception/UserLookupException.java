@@ -0,0 +1,13 @@
+package com.taskmanagementsystem.exception;
+
+/**
+ * Thrown when a user could not be looked up because the Users table or Cognito failed, as
+ * opposed to the user not existing. Callers answer with a retryable error instead of
+ * "user does not exist", and the failure is never cached.
+ */
+public class UserLookupException extends RuntimeException {
+
+    public UserLookupException(String email, Throwable cause) {
+        super("User lookup failed for " + email + ": " + cause.getMessage(), cause);
+    }
+}
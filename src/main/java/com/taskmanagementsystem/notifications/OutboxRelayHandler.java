@@ -0,0 +1,179 @@
+package com.taskmanagementsystem.notifications;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.repository.OutboxRepository;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.SnsBatchPublisher;
+import com.taskmanagementsystem.util.SqsBatchSender;
+
+import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
+
+/**
+ * Delivers the notifications that task handlers write to the Outbox table.
+ *
+ * Triggered by the table's stream. Every new outbox item in the batch is queued on a batch
+ * publisher (SNS) or sender (SQS) and sent with PublishBatch / SendMessageBatch. When entries
+ * still fail after the senders' retries, the earliest record holding one is reported as the
+ * batch item failure, so Lambda retries the stream from there. Records after it may be sent
+ * twice; delivery is at least once, and FIFO queue messages are deduplicated by event id.
+ *
+ * Workflow events are items of a state machine's "tasks" input. The items in a batch are
+ * collected per state machine and started as one execution per EXPIRATION_BATCH_SIZE items.
+ */
+public class OutboxRelayHandler implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
+    private static final int DEFAULT_EXECUTION_BATCH_SIZE = 200;
+
+    private final InitTimer initTimer = InitTimer.start(OutboxRelayHandler.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int executionBatchSize = readExecutionBatchSize();
+
+    public OutboxRelayHandler() {
+        // Create the clients now so the first stream batch does not pay for it
+        AwsClients.sns();
+        AwsClients.sqs();
+        AwsClients.sfn();
+        initTimer.stop();
+    }
+
+    @Override
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        initTimer.report(context);
+        List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+        if (event.getRecords() == null || event.getRecords().isEmpty()) {
+            return new StreamsEventResponse(failures);
+        }
+
+        SnsBatchPublisher notifications = new SnsBatchPublisher(AwsClients.sns());
+        SqsBatchSender messages = new SqsBatchSender(AwsClients.sqs());
+        // Workflow items per state machine, keyed by entry id
+        Map<String, Map<String, JsonNode>> workflowItems = new LinkedHashMap<>();
+
+        // Entry ids queued for each record, in stream order
+        List<DynamodbEvent.DynamodbStreamRecord> records = new ArrayList<>();
+        List<String> entryIds = new ArrayList<>();
+        int sent = 0;
+        for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
+            // TTL removals and anything else that is not a new event
+            if (!"INSERT".equals(record.getEventName()) || record.getDynamodb() == null
+                    || record.getDynamodb().getNewImage() == null) {
+                continue;
+            }
+
+            String entryId;
+            try {
+                OutboxEvent outboxEvent = OutboxRepository.fromStreamImage(record.getDynamodb().getNewImage());
+                entryId = queue(outboxEvent, notifications, messages, workflowItems, context);
+            } catch (RuntimeException e) {
+                // Retrying a malformed event would block the shard, so it is logged and dropped
+                context.getLogger().log("Skipping malformed outbox record " + record.getEventID() + ": " + e.getMessage());
+                continue;
+            }
+            if (entryId != null) {
+                records.add(record);
+                entryIds.add(entryId);
+                sent++;
+            }
+        }
+
+        // SNS, SQS and workflow entry ids have different prefixes, so one set holds them all
+        Set<String> failed = new HashSet<>(notifications.flush(context));
+        failed.addAll(messages.flush(context));
+        failed.addAll(startWorkflows(workflowItems, context));
+
+        // Lambda resumes from the lowest reported sequence number, so the first failure is enough
+        for (int i = 0; i < records.size(); i++) {
+            if (failed.contains(entryIds.get(i))) {
+                failures.add(new StreamsEventResponse.BatchItemFailure(records.get(i).getDynamodb().getSequenceNumber()));
+                break;
+            }
+        }
+
+        context.getLogger().log("Outbox relay: " + sent + " events queued, " + failed.size() + " failed");
+        return new StreamsEventResponse(failures);
+    }
+
+    /**
+     * Queues an event on its sender and returns the entry id, or null if it has nowhere to go.
+     */
+    private String queue(OutboxEvent event, SnsBatchPublisher notifications, SqsBatchSender messages,
+                         Map<String, Map<String, JsonNode>> workflowItems, Context context) {
+        if (event.getDestination() == null || event.getDestination().isEmpty()) {
+            context.getLogger().log("Outbox event " + event.getEventId() + " has no destination, skipping");
+            return null;
+        }
+        if (OutboxEvent.SNS.equals(event.getChannel())) {
+            return notifications.add(event.getDestination(), event.getSubject(), event.getMessage(), event.getAttributes());
+        }
+        if (OutboxEvent.SQS.equals(event.getChannel())) {
+            // Deduplication ids are only accepted by FIFO queues, which is where events carry a group
+            String deduplicationId = event.getMessageGroupId() != null ? event.getEventId() : null;
+            return messages.add(event.getDestination(), event.getMessage(), event.getMessageGroupId(), deduplicationId);
+        }
+        if (OutboxEvent.WORKFLOW.equals(event.getChannel())) {
+            JsonNode item;
+            try {
+                item = objectMapper.readTree(event.getMessage());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Workflow item is not JSON", e);
+            }
+            String entryId = "w" + event.getEventId();
+            workflowItems.computeIfAbsent(event.getDestination(), arn -> new LinkedHashMap<>()).put(entryId, item);
+            return entryId;
+        }
+        context.getLogger().log("Outbox event " + event.getEventId() + " has unknown channel " + event.getChannel());
+        return null;
+    }
+
+    /**
+     * Starts one execution per state machine and chunk of items.
+     *
+     * @return the entry ids of the items whose execution could not be started
+     */
+    private List<String> startWorkflows(Map<String, Map<String, JsonNode>> workflowItems, Context context) {
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Map<String, JsonNode>> workflow : workflowItems.entrySet()) {
+            List<String> entryIds = new ArrayList<>(workflow.getValue().keySet());
+            for (int from = 0; from < entryIds.size(); from += executionBatchSize) {
+                List<String> chunk = entryIds.subList(from, Math.min(from + executionBatchSize, entryIds.size()));
+                try {
+                    ObjectNode input = objectMapper.createObjectNode();
+                    ArrayNode tasks = input.putArray("tasks");
+                    for (String entryId : chunk) {
+                        tasks.add(workflow.getValue().get(entryId));
+                    }
+                    AwsClients.sfn().startExecution(StartExecutionRequest.builder()
+                            .stateMachineArn(workflow.getKey())
+                            .input(objectMapper.writeValueAsString(input))
+                            .build());
+                    context.getLogger().log("Started " + workflow.getKey() + " for " + chunk.size() + " items");
+                } catch (Exception e) {
+                    context.getLogger().log("Error starting " + workflow.getKey() + ": " + e.getMessage());
+                    failed.addAll(chunk);
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static int readExecutionBatchSize() {
+        String value = System.getenv("EXPIRATION_BATCH_SIZE");
+        return value == null || value.isEmpty() ? DEFAULT_EXECUTION_BATCH_SIZE : Integer.parseInt(value);
+    }
+}
@@ -1,45 +1,71 @@
 package com.taskmanagementsystem.notifications;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.taskmanagementsystem.entities.Tasks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.repository.SweepRunRepository;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.SweepRunner;
+import com.taskmanagementsystem.services.TaskExpirationService;
 import com.taskmanagementsystem.services.TaskService;
-import com.taskmanagementsystem.util.DynamoDBUtil;
-import com.taskmanagementsystem.util.UserUtils;
-
-import software.amazon.awssdk.services.sfn.SfnClient;
-import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.SqsBatchSender;
 
+/**
+ * Scheduled sweep that expires overdue tasks in bulk.
+ *
+ * Tasks are normally expired by {@link TaskTimerExpiryHandler} when their deadline timer fires,
+ * so this runs every 5 minutes as a safety net for timers that were never written or whose TTL
+ * deletion is late, which can take up to about two days. Each overdue task is claimed with a
+ * conditional status update, so a task is expired exactly once even when the sweep and a timer
+ * overlap.
+ *
+ * With SWEEP_WORKERS above 1 this invocation only coordinates: it records a run in the SweepRun
+ * table and queues one scan segment per worker for {@link SweepWorkerHandler}, so the sweep's
+ * wall time shrinks with the number of workers. Otherwise the scan runs here, SCAN_SEGMENTS
+ * segments in parallel under one SCAN_RCU_BUDGET. Either way each segment is paged through {@link SweepRunner}, which
+ * checkpoints its progress and stops before the Lambda times out; an inline segment cut short
+ * resumes from its checkpoint on the next scheduled run.
+ */
 public class ProcessExpiredTaskHandler implements RequestHandler<Object, Void> {
 
-    private final TaskService taskService = new TaskService();
-    private final String stepFunctionArn = System.getenv("EXPIRED_TASK_STATE_MACHINE_ARN");
-    private final AmazonDynamoDB dynamoDB = DynamoDBUtil.getDynamoDBClient();
-    private final String userTable = System.getenv("USER_TABLE");
+    private final InitTimer initTimer = InitTimer.start(ProcessExpiredTaskHandler.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TaskService taskService;
+    private final TaskExpirationService expirationService;
+    private final SweepRunner sweepRunner;
+    private final int sweepWorkers = readSweepWorkers();
+    private final String sweepQueueUrl = System.getenv("SWEEP_QUEUE_URL");
 
 
+    public ProcessExpiredTaskHandler() {
+        TaskRepository taskRepository = new TaskRepository();
+        this.taskService = new TaskService(taskRepository);
+        this.expirationService = new TaskExpirationService(taskRepository, new UserRepository());
+        this.sweepRunner = new SweepRunner();
+        initTimer.stop();
+    }
+
     @Override
     public Void handleRequest(Object input, Context context) {
+        initTimer.report(context);
         context.getLogger().log("Checking for expired tasks...");
         try {
-            // Fetch all tasks that are not completed or expired (add your filtering logic here)
-            List<Tasks> tasks = taskService.getIncompleteTasks();
             long now = System.currentTimeMillis();
             context.getLogger().log("Time on the system" + now);
-            for (Tasks task : tasks) {
-                Long deadline = task.getDeadline();
-                
-                if (deadline != null && now > deadline && !"expired".equalsIgnoreCase(task.getStatus()) && !"complete".equalsIgnoreCase(task.getStatus())) {
-                    //get the user id and pass it to the step function
-                    String userId = UserUtils.getUserIdByEmail(dynamoDB, userTable, task.getAssignedUserEmail(), context);
-                    // Trigger Step Function with the taskId to handle expiration logic
-                    triggerStepFunction(task.getTaskId(), userId);
-                    context.getLogger().log("Task expired: " + task.getTaskId());
-                }
+            if (sweepWorkers > 1 && sweepQueueUrl != null && !sweepQueueUrl.isEmpty()) {
+                fanOut(now, context);
+                return null;
             }
+
+            sweepInline(now, context);
         } catch (Exception e) {
             context.getLogger().log("Error during task expiration check: " + e.getMessage());
         }
@@ -47,17 +73,45 @@ public class ProcessExpiredTaskHandler implements RequestHandler<Object, Void> {
         return null;
     }
 
-    private void triggerStepFunction(String taskId, String userId) {
-        try (SfnClient sfnClient = SfnClient.create()) {
-            String inputJson = String.format("{\"taskId\":\"%s\", \"userId\":\"%s\"}", taskId, userId);
-    
-            StartExecutionRequest request = StartExecutionRequest.builder()
-                    .stateMachineArn(stepFunctionArn)
-                    .input(inputJson)
-                    .build();
-    
-            sfnClient.startExecution(request);
+    /**
+     * Records the run and queues one work item per scan segment. Segments that cannot be queued
+     * are recorded as failed so the run still completes.
+     */
+    private void fanOut(long now, Context context) throws Exception {
+        String runId = UUID.randomUUID().toString();
+        SweepRunRepository sweepRuns = new SweepRunRepository();
+        sweepRuns.start(runId, SweepWorkerHandler.EXPIRY_JOB, sweepWorkers, now);
+
+        SqsBatchSender workItems = new SqsBatchSender(AwsClients.sqs());
+        Map<String, Integer> segmentsByEntry = new HashMap<>();
+        for (int segment = 0; segment < sweepWorkers; segment++) {
+            SweepWorkerHandler.WorkItem item = new SweepWorkerHandler.WorkItem(
+                    runId, SweepWorkerHandler.EXPIRY_JOB, segment, sweepWorkers, now);
+            segmentsByEntry.put(workItems.add(sweepQueueUrl, objectMapper.writeValueAsString(item), null, null), segment);
+        }
+        for (String failed : workItems.flush(context)) {
+            sweepRuns.recordSegment(runId, segmentsByEntry.get(failed), 0, 0, "Work item could not be queued",
+                    System.currentTimeMillis());
         }
+        context.getLogger().log("Started expiry sweep " + runId + " with " + sweepWorkers + " segments");
+    }
+
+    /**
+     * Runs every scan segment here in parallel, each from its own checkpoint.
+     */
+    private void sweepInline(long now, Context context) {
+        SweepRunner.Result result = sweepRunner.runAll(SweepWorkerHandler.EXPIRY_JOB, taskService.overdueScan(now),
+                context, expirationService.pageProcessor(now, context));
+        context.getLogger().log("Scanned " + result.scanned() + " overdue tasks, expired " + result.processed()
+                + (result.complete() ? "" : "; the rest resumes on the next run"));
+    }
+
+    private static int readSweepWorkers() {
+        return readInt("SWEEP_WORKERS", 1);
+    }
+
+    private static int readInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
     }
-    
 }
@@ -2,66 +2,194 @@ package com.taskmanagementsystem.notifications;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.UserRepository;
 import com.taskmanagementsystem.services.TaskService;
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.SnsBatchPublisher;
 import com.taskmanagementsystem.util.SnsPublisher;
 import com.taskmanagementsystem.util.UserUtils;
 
 import lombok.Data;
 
-public class ProcessTaskQueueHandler implements RequestHandler<SQSEvent, Void> {
+/**
+ * Consumes task assignment messages from the tasks FIFO queue.
+ *
+ * Messages in a batch are grouped by MessageGroupId. Groups are processed concurrently while
+ * messages within a group stay in order. When a message fails, it and every later message of
+ * the same group are reported back as batch item failures, so SQS redelivers them in order and
+ * the rest of the batch is not retried. A notification that still fails after the batch
+ * publisher's retries counts as a failure of its message, and the group's later messages are
+ * not processed, so no email is sent twice when they are redelivered.
+ */
+public class ProcessTaskQueueHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
     private static final Logger logger = LogManager.getLogger(ProcessTaskQueueHandler.class);
-    private final AmazonDynamoDB dynamoDB = DynamoDBUtil.getDynamoDBClient();
+    private static final int MAX_CONCURRENT_GROUPS = 10;
+    private final InitTimer initTimer = InitTimer.start(ProcessTaskQueueHandler.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
-    TaskService taskService = new TaskService();
-    private final String userTable = System.getenv("USER_TABLE");
-    private final String taskAssignmentTopicArn = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
-    private final SnsPublisher publish = new SnsPublisher();
+    TaskService taskService;
+    private final UserRepository userRepository;
+    private final String taskAssignmentTopicArn;
+    private final SnsPublisher publish;
+
+    public ProcessTaskQueueHandler() {
+        this(new TaskService(), new UserRepository(), new SnsPublisher(), System.getenv("TASK_ASSIGNMENT_TOPIC_ARN"));
+    }
+
+    /**
+     * Constructor for tests, taking the services and topic ARN directly.
+     */
+    ProcessTaskQueueHandler(TaskService taskService, UserRepository userRepository, SnsPublisher publish,
+                            String taskAssignmentTopicArn) {
+        this.taskService = taskService;
+        this.userRepository = userRepository;
+        this.publish = publish;
+        this.taskAssignmentTopicArn = taskAssignmentTopicArn;
+        initTimer.stop();
+    }
 
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        initTimer.report(context);
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        if (event.getRecords() == null || event.getRecords().isEmpty()) {
+            return new SQSBatchResponse(failures);
+        }
+
+        // Messages without a group (standard queue) are independent of each other
+        Map<String, List<SQSEvent.SQSMessage>> groups = new LinkedHashMap<>();
         for (SQSEvent.SQSMessage message : event.getRecords()) {
+            String groupId = message.getAttributes() != null ? message.getAttributes().get("MessageGroupId") : null;
+            groups.computeIfAbsent(groupId != null ? groupId : message.getMessageId(), k -> new ArrayList<>()).add(message);
+        }
+
+        // Round r processes the r-th message of every group still going, and its emails are sent
+        // with PublishBatch before the next round starts. A group stops at its first message whose
+        // processing or email failed, so none of its later emails are published before that
+        // message is redelivered.
+        List<List<SQSEvent.SQSMessage>> groupList = new ArrayList<>(groups.values());
+        int[] failedFrom = new int[groupList.size()];
+        List<Integer> active = new ArrayList<>();
+        for (int g = 0; g < groupList.size(); g++) {
+            failedFrom[g] = groupList.get(g).size();
+            active.add(g);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_GROUPS, groups.size()));
+        try {
+            for (int round = 0; !active.isEmpty(); round++) {
+                active = processRound(groupList, active, round, failedFrom, executor, context);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Report everything not yet confirmed so SQS redelivers it
+            for (int g = 0; g < groupList.size(); g++) {
+                failedFrom[g] = 0;
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int g = 0; g < groupList.size(); g++) {
+            List<SQSEvent.SQSMessage> group = groupList.get(g);
+            for (SQSEvent.SQSMessage message : group.subList(failedFrom[g], group.size())) {
+                failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
+            }
+        }
+
+        context.getLogger().log("Processed " + event.getRecords().size() + " messages, " + failures.size() + " failed");
+        return new SQSBatchResponse(failures);
+    }
+
+    /**
+     * Processes the message at position round of each active group, concurrently, and sends
+     * their emails in one flush. Records the round as failedFrom for every group whose message
+     * failed.
+     *
+     * @return the groups that have more messages and no failure so far
+     */
+    private List<Integer> processRound(List<List<SQSEvent.SQSMessage>> groupList, List<Integer> active, int round,
+                                       int[] failedFrom, ExecutorService executor, Context context)
+            throws InterruptedException {
+        SnsBatchPublisher notifications = publish.newBatch();
+        Map<Integer, Future<String>> results = new LinkedHashMap<>();
+        for (int g : active) {
+            SQSEvent.SQSMessage message = groupList.get(g).get(round);
+            results.put(g, executor.submit(() -> processMessage(message, notifications, context)));
+        }
+
+        Map<Integer, String> entryIds = new HashMap<>();
+        for (Map.Entry<Integer, Future<String>> result : results.entrySet()) {
+            int g = result.getKey();
             try {
-                processMessage(message, context);
-            } catch (Exception e) {
-                context.getLogger().log("Error processing message: " + e.getMessage());
-                // Allow message to go to DLQ via redrive policy
-                throw new RuntimeException(e);
+                entryIds.put(g, result.getValue().get());
+            } catch (ExecutionException e) {
+                context.getLogger().log("Error processing message " + groupList.get(g).get(round).getMessageId()
+                        + ": " + e.getCause().getMessage());
+                failedFrom[g] = round;
+            }
+        }
+
+        Set<String> failedNotifications = new HashSet<>(notifications.flush(context));
+        List<Integer> next = new ArrayList<>();
+        for (int g : active) {
+            String entryId = entryIds.get(g);
+            if (entryId != null && failedNotifications.contains(entryId)) {
+                failedFrom[g] = round;
+            }
+            if (failedFrom[g] > round && round + 1 < groupList.get(g).size()) {
+                next.add(g);
             }
         }
-        return null;
+        return next;
     }
 
-    private void processMessage(SQSEvent.SQSMessage message, Context context) throws IOException {
+    /**
+     * Queues the assignment email for a message and returns its batch entry id, or null if nothing was sent.
+     */
+    private String processMessage(SQSEvent.SQSMessage message, SnsBatchPublisher notifications, Context context) throws IOException {
         TaskMessage taskMessage = objectMapper.readValue(message.getBody(), TaskMessage.class);
         Tasks task = taskService.getTask(taskMessage.getTaskId());
 
         if (task == null) {
             logger.error("Task not found: {}", taskMessage.getTaskId());
-            return;
+            return null;
         }
 
-        String userId = UserUtils.getUserIdByEmail(dynamoDB, userTable, task.getAssignedUserEmail(), context);
+        // Tasks written before assignedUserId existed fall back to the (cached) email lookup
+        String userId = task.getAssignedUserId() != null
+                ? task.getAssignedUserId()
+                : UserUtils.getUserIdByEmail(userRepository, task.getAssignedUserEmail(), context);
         if (userId == null) {
             context.getLogger().log("User not found for email:  " + task.getAssignedUserEmail());
-            return;
+            return null;
         }
 
-        publishTaskAssignmentNotification(task, userId, context);
+        return publishTaskAssignmentNotification(task, userId, notifications);
     }
 
-    private void publishTaskAssignmentNotification(Tasks task, String userId, Context context) {
+    private String publishTaskAssignmentNotification(Tasks task, String userId, SnsBatchPublisher notifications) {
         String message = String.format(
                 "New task assigned: %s\nDescription: %s\nDeadline: %s",
                 task.getName(),
@@ -69,7 +197,7 @@ public class ProcessTaskQueueHandler implements RequestHandler<SQSEvent, Void> {
                 Instant.ofEpochMilli(task.getDeadline()).toString()
         );
 
-        publish.publishTaskAssignment(taskAssignmentTopicArn, message, userId, context);
+        return notifications.add(taskAssignmentTopicArn, null, message, Map.of("userId", userId));
     }
 
     @Data
@@ -0,0 +1,128 @@
+package com.taskmanagementsystem.notifications;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.repository.SweepRunRepository;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.SweepRunner;
+import com.taskmanagementsystem.services.TaskExpirationService;
+import com.taskmanagementsystem.services.TaskService;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.InitTimer;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+
+/**
+ * Processes one segment of a distributed sweep per work item from the sweep work queue.
+ *
+ * The coordinator ({@link ProcessExpiredTaskHandler}) splits the table scan into segments and
+ * queues one {@link WorkItem} each, so the segments run in parallel invocations. A segment that
+ * does not finish before the invocation's time limit is checkpointed by {@link SweepRunner} and
+ * its work item queued again, so the next invocation continues it. A failed segment is reported
+ * back to SQS and retried; on its last attempt the error is recorded in the run summary instead,
+ * so the run still completes. Every finished segment's counts go to the SweepRun table.
+ */
+public class SweepWorkerHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    public static final String EXPIRY_JOB = "expiry";
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private final InitTimer initTimer = InitTimer.start(SweepWorkerHandler.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TaskService taskService;
+    private final TaskExpirationService expirationService;
+    private final SweepRunRepository sweepRuns;
+    private final SweepRunner sweepRunner;
+    private final SqsClient sqsClient;
+    private final String sweepQueueUrl = System.getenv("SWEEP_QUEUE_URL");
+    private final int maxAttempts = readMaxAttempts();
+
+    public SweepWorkerHandler() {
+        TaskRepository taskRepository = new TaskRepository();
+        this.taskService = new TaskService(taskRepository);
+        this.expirationService = new TaskExpirationService(taskRepository, new UserRepository());
+        this.sweepRuns = new SweepRunRepository();
+        this.sweepRunner = new SweepRunner();
+        this.sqsClient = AwsClients.sqs();
+        initTimer.stop();
+    }
+
+    @Override
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        initTimer.report(context);
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        if (event.getRecords() == null) {
+            return new SQSBatchResponse(failures);
+        }
+
+        for (SQSEvent.SQSMessage message : event.getRecords()) {
+            WorkItem item;
+            try {
+                item = objectMapper.readValue(message.getBody(), WorkItem.class);
+            } catch (Exception e) {
+                context.getLogger().log("Dropping malformed sweep work item " + message.getMessageId() + ": " + e.getMessage());
+                continue;
+            }
+
+            try {
+                SweepRunner.Result result = process(item, context);
+                if (!result.complete()) {
+                    // Continued from the checkpoint by the next invocation
+                    sqsClient.sendMessage(SendMessageRequest.builder()
+                            .queueUrl(sweepQueueUrl)
+                            .messageBody(message.getBody())
+                            .build());
+                    continue;
+                }
+                sweepRuns.recordSegment(item.runId(), item.segment(), result.scanned(), result.processed(), null,
+                        System.currentTimeMillis());
+                context.getLogger().log("Sweep " + item.runId() + " segment " + item.segment() + "/" + item.totalSegments()
+                        + ": scanned " + result.scanned() + ", processed " + result.processed());
+            } catch (Exception e) {
+                context.getLogger().log("Sweep " + item.runId() + " segment " + item.segment() + " failed: " + e.getMessage());
+                if (receiveCount(message) < maxAttempts) {
+                    failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
+                } else {
+                    sweepRuns.recordSegment(item.runId(), item.segment(), 0, 0,
+                            String.valueOf(e.getMessage()), System.currentTimeMillis());
+                }
+            }
+        }
+        return new SQSBatchResponse(failures);
+    }
+
+    private SweepRunner.Result process(WorkItem item, Context context) throws Exception {
+        if (!EXPIRY_JOB.equals(item.job())) {
+            throw new IllegalArgumentException("Unknown sweep job " + item.job());
+        }
+
+        String checkpointId = item.job() + "#" + item.runId() + "#" + item.segment();
+        return sweepRunner.run(checkpointId, taskService.overdueScan(item.nowMillis()),
+                item.segment(), item.totalSegments(), context,
+                expirationService.pageProcessor(item.nowMillis(), context));
+    }
+
+    private static int receiveCount(SQSEvent.SQSMessage message) {
+        String count = message.getAttributes() != null ? message.getAttributes().get("ApproximateReceiveCount") : null;
+        return count == null ? 1 : Integer.parseInt(count);
+    }
+
+    private static int readMaxAttempts() {
+        String value = System.getenv("SWEEP_MAX_ATTEMPTS");
+        return value == null || value.isEmpty() ? DEFAULT_MAX_ATTEMPTS : Integer.parseInt(value);
+    }
+
+    /**
+     * One segment of a sweep run. All segments of a run use the coordinator's clock.
+     */
+    public record WorkItem(String runId, String job, int segment, int totalSegments, long nowMillis) {}
+}
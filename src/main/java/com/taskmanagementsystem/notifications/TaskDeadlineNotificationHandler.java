@@ -1,44 +1,70 @@
 package com.taskmanagementsystem.notifications;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
 
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.ReminderLedgerRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.TaskService;
 import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.SnsBatchPublisher;
+import com.taskmanagementsystem.util.SnsPublisher;
 import com.taskmanagementsystem.util.UserUtils;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Scheduled sweep that sends deadline reminders in tiers, by default 24 hours, 1 hour and
+ * 15 minutes before the deadline (REMINDER_TIERS, in minutes).
+ *
+ * Each tier only reads the tasks whose deadline is about to cross it: those due between
+ * (tier - REMINDER_LOOKBACK_MINUTES) and tier minutes from now, through the sparse
+ * OpenDeadlineIndex. A task gets the tightest tier it is within. Every reminder is claimed in
+ * the reminder ledger with a conditional put before it is published, so each tier is sent once
+ * per task even when sweeps overlap or are retried. A reminder that fails to publish is released
+ * so the next sweep sends it. The lookback must be longer than the schedule interval.
+ *
+ * Claiming stops once less than SWEEP_TIME_RESERVE_MILLIS of the invocation is left, so the
+ * reminders already claimed are still published; the rest are unclaimed and the next sweep,
+ * whose windows overlap this one's by the lookback, picks them up.
+ */
 public class TaskDeadlineNotificationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private static final Logger logger = LogManager.getLogger(TaskDeadlineNotificationHandler.class);
+    private final InitTimer initTimer = InitTimer.start(TaskDeadlineNotificationHandler.class);
 
-    private final DynamoDbClient dynamoDbClient = DynamoDbClient.create();
-    private final SnsClient snsClient = SnsClient.create();
-    private final String taskTable = System.getenv("TASK_TABLE");
-	private final String userTable = System.getenv("USER_TABLE");
+    private final SnsPublisher snsPublisher = new SnsPublisher();
+	private final UserRepository userRepository = new UserRepository();
     private final String deadlineTopicArn = System.getenv("TASK_DEADLINE_TOPIC_ARN");
-	private final AmazonDynamoDB dynamoDB = DynamoDBUtil.getDynamoDBClient();
+    private final TaskService taskService = new TaskService();
+    private final ReminderLedgerRepository reminderLedger = new ReminderLedgerRepository();
+    private final List<Integer> tierMinutes = readTiers();
+    private final long lookbackMillis = readLookbackMinutes() * 60_000L;
+    private final long timeReserveMillis = readTimeReserveMillis();
+
+    public TaskDeadlineNotificationHandler() {
+        initTimer.stop();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        initTimer.report(context);
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -46,37 +72,64 @@ public class TaskDeadlineNotificationHandler implements RequestHandler<APIGatewa
 
             long nowMillis = Instant.now().toEpochMilli();
 
-			long oneHourFromNowMillis = nowMillis + 3_600_000L;
-            context.getLogger().log("NOW" + nowMillis + "ONE HOUR FROM NOW" + oneHourFromNowMillis);
-
-
-            Map<String, String> expressionAttributeNames = new HashMap<>();
-            expressionAttributeNames.put("#status", "status");
-
-            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-            expressionAttributeValues.put(":statusVal", AttributeValue.builder().s("open").build());
-            expressionAttributeValues.put(":startTime", AttributeValue.builder().n(String.valueOf(nowMillis)).build());
-            expressionAttributeValues.put(":endTime", AttributeValue.builder().n(String.valueOf(oneHourFromNowMillis)).build());
+            // Only open tasks about to cross a tier are read, via the sparse OpenDeadlineIndex
+            Map<String, Tasks> tasksById = new LinkedHashMap<>();
+            for (int tier : tierMinutes) {
+                long windowEnd = nowMillis + tier * 60_000L;
+                long windowStart = Math.max(nowMillis, windowEnd - lookbackMillis);
+                taskService.forEachOpenTaskDueBetween(windowStart, windowEnd, task -> tasksById.put(task.getTaskId(), task));
+            }
 
-            ScanRequest scanRequest = ScanRequest.builder()
-                    .tableName(taskTable)
-                    .filterExpression("#status = :statusVal AND deadline >= :startTime AND deadline <= :endTime")
-                    .expressionAttributeNames(expressionAttributeNames)
-                    .expressionAttributeValues(expressionAttributeValues)
-                    .build();
+            // The tightest tier each task is within; tiers already sent are dropped
+            Map<String, Integer> dueTiers = new LinkedHashMap<>();
+            Map<String, Tasks> dueByReminder = new HashMap<>();
+            for (Tasks task : tasksById.values()) {
+                int tier = tightestTier(task.getDeadline() - nowMillis);
+                String reminderId = ReminderLedgerRepository.reminderId(task.getTaskId(), task.getDeadline(), tier);
+                dueTiers.put(reminderId, tier);
+                dueByReminder.put(reminderId, task);
+            }
+            Set<String> alreadySent = dueTiers.isEmpty() ? Set.of() : reminderLedger.findSent(dueTiers.keySet());
+            List<Tasks> dueTasks = new ArrayList<>();
+            List<String> dueReminders = new ArrayList<>();
+            for (String reminderId : dueTiers.keySet()) {
+                if (!alreadySent.contains(reminderId)) {
+                    dueTasks.add(dueByReminder.get(reminderId));
+                    dueReminders.add(reminderId);
+                }
+            }
+            context.getLogger().log("Read " + tasksById.size() + " tasks near a reminder tier, "
+                    + dueTasks.size() + " reminders not yet sent");
+
+            // Only tasks written before assignedUserId existed need a lookup, once per distinct assignee
+            List<String> assigneeEmails = new ArrayList<>();
+            for (Tasks task : dueTasks) {
+                if (task.getAssignedUserId() == null) {
+                    assigneeEmails.add(task.getAssignedUserEmail());
+                }
+            }
+            Map<String, String> userIds = assigneeEmails.isEmpty()
+                    ? Map.of()
+                    : UserUtils.getUserIdsByEmail(userRepository, assigneeEmails, context);
 
-            ScanResponse scanResponse = dynamoDbClient.scan(scanRequest);
+            // Reminders go out through PublishBatch, up to 10 per request
+            SnsBatchPublisher reminders = snsPublisher.newBatch();
+            Map<String, String> reminderByEntry = new HashMap<>();
             int notificationCount = 0;
-
-
-            for (Map<String, AttributeValue> item : scanResponse.items()) {
-                String taskId = item.get("taskId").s();
-                String taskName = item.get("name").s();
-                String assignedTo = item.get("assignedUserEmail").s();
-                String deadlineMicros = item.get("deadline").n();
-
-
-                long deadlineMillis = Long.parseLong(deadlineMicros);
+            for (int i = 0; i < dueTasks.size(); i++) {
+                if (context.getRemainingTimeInMillis() < timeReserveMillis) {
+                    context.getLogger().log("Stopping before the time limit; " + (dueTasks.size() - i)
+                            + " reminders left for the next sweep");
+                    break;
+                }
+                Tasks task = dueTasks.get(i);
+                String reminderId = dueReminders.get(i);
+                String taskId = task.getTaskId();
+                String taskName = task.getName();
+                String assignedTo = task.getAssignedUserEmail();
+
+
+                long deadlineMillis = task.getDeadline();
                 String deadlineFormatted = DateTimeFormatter
                         .ofPattern("yyyy-MM-dd HH:mm:ss")
                         .withZone(ZoneOffset.UTC)
@@ -88,28 +141,25 @@ public class TaskDeadlineNotificationHandler implements RequestHandler<APIGatewa
                         taskName, taskId, deadlineFormatted
                 );
 
-				String userID = UserUtils.getUserIdByEmail(dynamoDB, userTable, assignedTo, context);
-
-                Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-                messageAttributes.put("userId", MessageAttributeValue.builder()
-                        .dataType("String")
-                        .stringValue(userID)
-                        .build());
-                // messageAttributes.put("notificationType", MessageAttributeValue.builder()
-                //         .dataType("String")
-                //         .stringValue("TASK_DEADLINE")
-                //         .build());
-
-                PublishRequest publishRequest = PublishRequest.builder()
-                        .topicArn(deadlineTopicArn)
-                        .message(message)
-                        .messageAttributes(messageAttributes)
-                        .build();
-
-                snsClient.publish(publishRequest);
+				String userID = task.getAssignedUserId() != null ? task.getAssignedUserId() : userIds.get(assignedTo);
+                if (userID == null) {
+                    logger.warn("Skipping reminder for task {}: no user found for {}", taskId, assignedTo);
+                    continue;
+                }
+
+                // Claimed before publishing, so a concurrent sweep cannot send it too
+                if (!reminderLedger.claim(reminderId, taskId, deadlineMillis, dueTiers.get(reminderId), nowMillis)) {
+                    continue;
+                }
+                reminderByEntry.put(reminders.add(deadlineTopicArn, null, message, Map.of("userId", userID)), reminderId);
                 notificationCount++;
-				context.getLogger().log("Published notification");
-                logger.info("Published notification for task: {}, assignedTo: {}, deadline: {}", taskId, assignedTo, deadlineFormatted);
+                logger.info("Queued notification for task: {}, assignedTo: {}, deadline: {}", taskId, assignedTo, deadlineFormatted);
+            }
+
+            List<String> failed = reminders.flush(context);
+            notificationCount -= failed.size();
+            for (String entryId : failed) {
+                reminderLedger.release(reminderByEntry.get(entryId));
             }
 
 
@@ -117,9 +167,9 @@ public class TaskDeadlineNotificationHandler implements RequestHandler<APIGatewa
             response.setBody(String.format("{\"message\": \"Processed %d task deadline notifications\"}", notificationCount));
         } 
         catch (DynamoDbException dbe) {
-                logger.error("DynamoDB error during scan: {}", dbe.getMessage(), dbe);
+                logger.error("DynamoDB error during deadline query: {}", dbe.getMessage(), dbe);
                 response.setStatusCode(500);
-                response.setBody("{\"message\": \"DynamoDB scan failed: " + dbe.getMessage() + "\"}");
+                response.setBody("{\"message\": \"DynamoDB query failed: " + dbe.getMessage() + "\"}");
         }
         catch (Exception e) {
             logger.error("Error processing task deadline notifications", e);
@@ -129,4 +179,39 @@ public class TaskDeadlineNotificationHandler implements RequestHandler<APIGatewa
 
         return response;
     }
+
+    /**
+     * The smallest tier the remaining time is within. Only called for tasks read through a tier
+     * window, which are within the largest tier at least.
+     */
+    private int tightestTier(long remainingMillis) {
+        for (int tier : tierMinutes) {
+            if (remainingMillis <= tier * 60_000L) {
+                return tier;
+            }
+        }
+        return tierMinutes.get(tierMinutes.size() - 1);
+    }
+
+    /**
+     * Reads REMINDER_TIERS, a comma-separated list of minutes before the deadline, smallest first.
+     */
+    private static List<Integer> readTiers() {
+        String value = System.getenv("REMINDER_TIERS");
+        Set<Integer> tiers = new TreeSet<>();
+        for (String tier : (value == null || value.isEmpty() ? "1440,60,15" : value).split(",")) {
+            tiers.add(Integer.parseInt(tier.trim()));
+        }
+        return new ArrayList<>(tiers);
+    }
+
+    private static long readTimeReserveMillis() {
+        String value = System.getenv("SWEEP_TIME_RESERVE_MILLIS");
+        return value == null || value.isEmpty() ? 10_000 : Long.parseLong(value);
+    }
+
+    private static int readLookbackMinutes() {
+        String value = System.getenv("REMINDER_LOOKBACK_MINUTES");
+        return value == null || value.isEmpty() ? 10 : Integer.parseInt(value);
+    }
 }
\ No newline at end of file
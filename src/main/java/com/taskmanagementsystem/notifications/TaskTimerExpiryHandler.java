@@ -0,0 +1,127 @@
+package com.taskmanagementsystem.notifications;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.Identity;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.TaskExpirationService;
+import com.taskmanagementsystem.util.InitTimer;
+
+/**
+ * Expires tasks when their deadline timer fires.
+ *
+ * Triggered by the TaskTimer table's stream. Only deletions made by DynamoDB's TTL count; a
+ * timer overwritten with a new deadline produces no deletion. A task is expired only if it is
+ * still open with the deadline the timer was written for, so timers of tasks that were
+ * completed, closed or rescheduled since are ignored. The expiration workflow is started
+ * through the outbox, written in the same transaction as the claim. If a task cannot be read
+ * or claimed, the earliest such record is reported as the batch item failure and the stream
+ * is retried from it; the task is still open, so the scheduled sweep in
+ * {@link ProcessExpiredTaskHandler} also finds it.
+ */
+public class TaskTimerExpiryHandler implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
+    private final InitTimer initTimer = InitTimer.start(TaskTimerExpiryHandler.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskExpirationService expirationService;
+
+    public TaskTimerExpiryHandler() {
+        this.taskRepository = new TaskRepository();
+        this.expirationService = new TaskExpirationService(taskRepository, new UserRepository());
+        initTimer.stop();
+    }
+
+    @Override
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        initTimer.report(context);
+        List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+        if (event.getRecords() == null || event.getRecords().isEmpty()) {
+            return new StreamsEventResponse(failures);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Tasks> dueTasks = new ArrayList<>();
+        // Sequence number of the record that fired each due task
+        Map<String, String> sequenceByTask = new HashMap<>();
+        String readFailure = null;
+        for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
+            if (!isTtlDeletion(record)) {
+                continue;
+            }
+            Map<String, AttributeValue> timer = record.getDynamodb().getOldImage();
+            if (timer == null || timer.get("taskId") == null || timer.get("deadline") == null) {
+                context.getLogger().log("Skipping malformed timer record " + record.getEventID());
+                continue;
+            }
+            String taskId = timer.get("taskId").getS();
+            long deadline = Long.parseLong(timer.get("deadline").getN());
+
+            Tasks task;
+            try {
+                task = taskRepository.findById(taskId);
+            } catch (RuntimeException e) {
+                // Lambda resumes from this record, so later ones are left for the retry
+                context.getLogger().log("Error reading task " + taskId + ": " + e.getMessage());
+                readFailure = record.getDynamodb().getSequenceNumber();
+                break;
+            }
+
+            if (task != null && TaskStatus.OPEN.equals(TaskStatus.canonical(task.getStatus()))
+                    && task.getDeadline() != null && task.getDeadline() == deadline && deadline <= now) {
+                dueTasks.add(task);
+                sequenceByTask.put(task.getTaskId(), record.getDynamodb().getSequenceNumber());
+            }
+        }
+
+        // Lambda resumes from the lowest reported sequence number, so the first failure is enough
+        String firstFailure = readFailure;
+        try {
+            TaskExpirationService.ClaimResult result = expirationService.claim(dueTasks, now, context);
+            context.getLogger().log("Timers fired for " + dueTasks.size() + " tasks, expired " + result.expired().size());
+            for (Tasks failed : result.failed()) {
+                firstFailure = earlier(firstFailure, sequenceByTask.get(failed.getTaskId()));
+            }
+        } catch (Exception e) {
+            context.getLogger().log("Error expiring tasks: " + e.getMessage());
+            for (Tasks task : dueTasks) {
+                firstFailure = earlier(firstFailure, sequenceByTask.get(task.getTaskId()));
+            }
+        }
+
+        if (firstFailure != null) {
+            failures.add(new StreamsEventResponse.BatchItemFailure(firstFailure));
+        }
+        return new StreamsEventResponse(failures);
+    }
+
+    /**
+     * The lower of two stream sequence numbers, which are decimal strings of any length.
+     */
+    private static String earlier(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return new BigInteger(a).compareTo(new BigInteger(b)) <= 0 ? a : b;
+    }
+
+    private static boolean isTtlDeletion(DynamodbEvent.DynamodbStreamRecord record) {
+        Identity identity = record.getUserIdentity();
+        return "REMOVE".equals(record.getEventName())
+                && record.getDynamodb() != null
+                && identity != null
+                && "Service".equals(identity.getType())
+                && "dynamodb.amazonaws.com".equals(identity.getPrincipalId());
+    }
+}
@@ -0,0 +1,172 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+
+/**
+ * Requests made with an Idempotency-Key, in the Idempotency table.
+ *
+ * A request is first recorded as IN_PROGRESS with a conditional put, so only one of several
+ * concurrent retries runs. When it finishes, the item is replaced with the response that was
+ * sent, which later retries get back instead of running the request again. Items expire
+ * through the expiresAt TTL; DynamoDB may delete them well after that, so an item past
+ * expiresAt is treated as absent. An IN_PROGRESS item whose lockExpiresAt has passed belongs to
+ * an invocation that died, and the next retry may take it over. The lockExpiresAt written by
+ * {@link #begin} identifies the claim: completing or releasing only succeeds while the item
+ * still holds that claim, so an invocation that lost its lock cannot overwrite the work of the
+ * one that took over.
+ */
+public class IdempotencyRepository {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    // The item is still the in-progress marker of one particular begin() call
+    private static final String HELD_CONDITION = "#status = :inProgress AND lockExpiresAt = :lock";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public IdempotencyRepository() {
+        this(AwsClients.dynamoDb(), System.getenv("IDEMPOTENCY_TABLE"));
+    }
+
+    public IdempotencyRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Idempotency table name not configured");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Records the request as in progress until lockExpiresAtMillis unless it is already known.
+     * The same lockExpiresAtMillis must be passed to {@link #complete} or {@link #release}.
+     *
+     * @return null if this call claimed the key and should run the request, otherwise the
+     *         existing record
+     */
+    public IdempotencyRecord begin(String idempotencyKey, String requestHash, long nowMillis,
+                                   long lockExpiresAtMillis, long retentionSeconds) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("idempotencyKey", AttributeValue.builder().s(idempotencyKey).build());
+        item.put("status", AttributeValue.builder().s(IN_PROGRESS).build());
+        item.put("requestHash", AttributeValue.builder().s(requestHash).build());
+        item.put("lockExpiresAt", number(lockExpiresAtMillis));
+        item.put("expiresAt", number(nowMillis / 1000 + retentionSeconds));
+
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(idempotencyKey) OR expiresAt < :nowSeconds"
+                            + " OR (#status = :inProgress AND lockExpiresAt < :now)")
+                    .expressionAttributeNames(Map.of("#status", "status"))
+                    .expressionAttributeValues(Map.of(
+                            ":inProgress", AttributeValue.builder().s(IN_PROGRESS).build(),
+                            ":now", number(nowMillis),
+                            ":nowSeconds", number(nowMillis / 1000)))
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build());
+            return null;
+        } catch (ConditionalCheckFailedException e) {
+            return e.hasItem() ? toRecord(e.item()) : new IdempotencyRecord(IN_PROGRESS, requestHash, null, null, null);
+        }
+    }
+
+    /**
+     * Replaces the in-progress marker written by {@link #begin} with the response the request
+     * produced.
+     *
+     * @return false if the marker is no longer this call's, because its lock expired and another
+     *         request took the key over
+     */
+    public boolean complete(String idempotencyKey, String requestHash, long lockExpiresAtMillis, int statusCode,
+                            String body, Map<String, String> headers, long nowMillis, long retentionSeconds) {
+        Map<String, AttributeValue> headerValues = new HashMap<>();
+        if (headers != null) {
+            headers.forEach((name, value) -> headerValues.put(name, AttributeValue.builder().s(value).build()));
+        }
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("idempotencyKey", AttributeValue.builder().s(idempotencyKey).build());
+        item.put("status", AttributeValue.builder().s(COMPLETED).build());
+        item.put("requestHash", AttributeValue.builder().s(requestHash).build());
+        item.put("statusCode", number(statusCode));
+        item.put("headers", AttributeValue.builder().m(headerValues).build());
+        if (body != null) {
+            item.put("body", AttributeValue.builder().s(body).build());
+        }
+        item.put("completedAt", number(nowMillis));
+        item.put("expiresAt", number(nowMillis / 1000 + retentionSeconds));
+
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .conditionExpression(HELD_CONDITION)
+                    .expressionAttributeNames(Map.of("#status", "status"))
+                    .expressionAttributeValues(heldValues(lockExpiresAtMillis))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes the in-progress marker written by {@link #begin} for a request that failed, so a
+     * retry runs it again. A marker that another request has taken over is left alone.
+     */
+    public void release(String idempotencyKey, long lockExpiresAtMillis) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of("idempotencyKey", AttributeValue.builder().s(idempotencyKey).build()))
+                    .conditionExpression(HELD_CONDITION)
+                    .expressionAttributeNames(Map.of("#status", "status"))
+                    .expressionAttributeValues(heldValues(lockExpiresAtMillis))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Already taken over by a retry
+        }
+    }
+
+    private static Map<String, AttributeValue> heldValues(long lockExpiresAtMillis) {
+        return Map.of(
+                ":inProgress", AttributeValue.builder().s(IN_PROGRESS).build(),
+                ":lock", number(lockExpiresAtMillis));
+    }
+
+    private static IdempotencyRecord toRecord(Map<String, AttributeValue> item) {
+        Map<String, String> headers = new HashMap<>();
+        if (item.containsKey("headers")) {
+            item.get("headers").m().forEach((name, value) -> headers.put(name, value.s()));
+        }
+        return new IdempotencyRecord(
+                item.get("status").s(),
+                item.get("requestHash").s(),
+                item.containsKey("statusCode") ? Integer.valueOf(item.get("statusCode").n()) : null,
+                item.containsKey("body") ? item.get("body").s() : null,
+                headers);
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    /**
+     * A known request. statusCode, body and headers are only set once it has completed.
+     */
+    public record IdempotencyRecord(String status, String requestHash, Integer statusCode, String body,
+                                    Map<String, String> headers) {}
+}
@@ -0,0 +1,46 @@
+package com.taskmanagementsystem.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Boolean converter that writes BOOL but also reads the N "1"/"0" values the v1
+ * DynamoDBMapper used to store, so items written before the migration still load.
+ */
+public class LegacyBooleanConverter implements AttributeConverter<Boolean> {
+
+    public static LegacyBooleanConverter create() {
+        return new LegacyBooleanConverter();
+    }
+
+    @Override
+    public AttributeValue transformFrom(Boolean input) {
+        return AttributeValue.builder().bool(input).build();
+    }
+
+    @Override
+    public Boolean transformTo(AttributeValue input) {
+        if (input.bool() != null) {
+            return input.bool();
+        }
+        if (input.n() != null) {
+            return !"0".equals(input.n());
+        }
+        if (input.s() != null) {
+            return Boolean.parseBoolean(input.s());
+        }
+        return null;
+    }
+
+    @Override
+    public EnhancedType<Boolean> type() {
+        return EnhancedType.of(Boolean.class);
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.BOOL;
+    }
+}
@@ -0,0 +1,121 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskmanagementsystem.entities.OutboxEvent;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Maps {@link OutboxEvent}s to and from items of the Outbox table.
+ *
+ * Events are written as part of a task transaction, or batch written after several task
+ * updates (see {@link TaskRepository}), and read back from the table's stream by the relay, so
+ * there are no reads here. Items carry an
+ * expiresAt TTL and are removed by DynamoDB once the stream has long been consumed.
+ */
+public class OutboxRepository {
+
+    private static final long RETENTION_SECONDS = 7 * 24 * 60 * 60;
+
+    private final String tableName;
+
+    public OutboxRepository() {
+        this(System.getenv("OUTBOX_TABLE"));
+    }
+
+    public OutboxRepository(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * @throws IllegalStateException if OUTBOX_TABLE is not configured
+     */
+    String getTableName() {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Outbox table name not configured");
+        }
+        return tableName;
+    }
+
+    /**
+     * Builds the put of an event for a transaction.
+     *
+     * @throws IllegalStateException if OUTBOX_TABLE is not configured
+     */
+    TransactWriteItem toPut(OutboxEvent event) {
+        return TransactWriteItem.builder()
+                .put(Put.builder().tableName(getTableName()).item(toItem(event)).build())
+                .build();
+    }
+
+    /**
+     * Builds the put of an event for a BatchWriteItem request.
+     */
+    WriteRequest toWriteRequest(OutboxEvent event) {
+        return WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(toItem(event)).build())
+                .build();
+    }
+
+    static Map<String, AttributeValue> toItem(OutboxEvent event) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("eventId", AttributeValue.builder().s(event.getEventId()).build());
+        item.put("channel", AttributeValue.builder().s(event.getChannel()).build());
+        item.put("destination", AttributeValue.builder().s(event.getDestination()).build());
+        item.put("message", AttributeValue.builder().s(event.getMessage()).build());
+        if (event.getSubject() != null) {
+            item.put("subject", AttributeValue.builder().s(event.getSubject()).build());
+        }
+        if (event.getAttributes() != null && !event.getAttributes().isEmpty()) {
+            Map<String, AttributeValue> attributes = new HashMap<>();
+            for (Map.Entry<String, String> attribute : event.getAttributes().entrySet()) {
+                attributes.put(attribute.getKey(), AttributeValue.builder().s(attribute.getValue()).build());
+            }
+            item.put("attributes", AttributeValue.builder().m(attributes).build());
+        }
+        if (event.getMessageGroupId() != null) {
+            item.put("messageGroupId", AttributeValue.builder().s(event.getMessageGroupId()).build());
+        }
+        long createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : System.currentTimeMillis();
+        item.put("createdAt", AttributeValue.builder().n(String.valueOf(createdAt)).build());
+        item.put("expiresAt", AttributeValue.builder().n(String.valueOf(createdAt / 1000 + RETENTION_SECONDS)).build());
+        return item;
+    }
+
+    /**
+     * Reads an event from the NewImage of an Outbox stream record.
+     */
+    public static OutboxEvent fromStreamImage(
+            Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image) {
+        Map<String, String> attributes = null;
+        if (image.containsKey("attributes") && image.get("attributes").getM() != null) {
+            attributes = new HashMap<>();
+            for (Map.Entry<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> attribute
+                    : image.get("attributes").getM().entrySet()) {
+                attributes.put(attribute.getKey(), attribute.getValue().getS());
+            }
+        }
+
+        return OutboxEvent.builder()
+                .eventId(streamString(image, "eventId"))
+                .channel(streamString(image, "channel"))
+                .destination(streamString(image, "destination"))
+                .subject(streamString(image, "subject"))
+                .message(streamString(image, "message"))
+                .attributes(attributes)
+                .messageGroupId(streamString(image, "messageGroupId"))
+                .createdAt(image.containsKey("createdAt") ? Long.valueOf(image.get("createdAt").getN()) : null)
+                .build();
+    }
+
+    private static String streamString(
+            Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image, String name) {
+        return image.containsKey(name) ? image.get(name).getS() : null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+/**
+ * Records which deadline reminders have been sent, one item per task, deadline and tier, in the
+ * ReminderLedger table.
+ *
+ * A reminder is claimed with a conditional put before it is published, so overlapping or retried
+ * sweeps send each tier once. The deadline is part of the key, so moving a task's deadline starts
+ * its reminders over. Entries expire through the expiresAt TTL a week after the deadline.
+ */
+public class ReminderLedgerRepository {
+
+    private static final int MAX_BATCH_GET_SIZE = 100;
+    private static final long RETENTION_SECONDS = 7 * 24 * 60 * 60;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public ReminderLedgerRepository() {
+        this(AwsClients.dynamoDb(), System.getenv("REMINDER_LEDGER_TABLE"));
+    }
+
+    public ReminderLedgerRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Reminder ledger table name not configured");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    public static String reminderId(String taskId, long deadline, int tierMinutes) {
+        return taskId + "#" + deadline + "#" + tierMinutes;
+    }
+
+    /**
+     * Returns which of the reminders are already in the ledger, using BatchGetItem. This only
+     * saves sweeps from claiming reminders they can see were sent; {@link #claim} is what
+     * guarantees a single send. Keys DynamoDB leaves unprocessed are treated as not sent.
+     */
+    public Set<String> findSent(Collection<String> reminderIds) {
+        Set<String> sent = new HashSet<>();
+        List<String> ids = new ArrayList<>(reminderIds);
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_GET_SIZE) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String reminderId : ids.subList(from, Math.min(from + MAX_BATCH_GET_SIZE, ids.size()))) {
+                keys.add(key(reminderId));
+            }
+
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(Map.of(tableName, KeysAndAttributes.builder()
+                            .keys(keys)
+                            .projectionExpression("reminderId")
+                            .build()))
+                    .build());
+            for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                sent.add(item.get("reminderId").s());
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Records a reminder as sent unless it already is.
+     *
+     * @return true if this call claimed the reminder and should publish it
+     */
+    public boolean claim(String reminderId, String taskId, long deadline, int tierMinutes, long nowMillis) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("reminderId", AttributeValue.builder().s(reminderId).build());
+        item.put("taskId", AttributeValue.builder().s(taskId).build());
+        item.put("tierMinutes", AttributeValue.builder().n(String.valueOf(tierMinutes)).build());
+        item.put("sentAt", AttributeValue.builder().n(String.valueOf(nowMillis)).build());
+        item.put("expiresAt", AttributeValue.builder().n(String.valueOf(deadline / 1000 + RETENTION_SECONDS)).build());
+
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(reminderId)")
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes a claim whose reminder could not be published, so the next sweep sends it.
+     */
+    public void release(String reminderId) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(key(reminderId))
+                .build());
+    }
+
+    private static Map<String, AttributeValue> key(String reminderId) {
+        return Map.of("reminderId", AttributeValue.builder().s(reminderId).build());
+    }
+}
@@ -0,0 +1,95 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+/**
+ * Progress of interrupted sweeps in the SweepCheckpoint table, one small item per sweep segment.
+ *
+ * An item holds the scan's LastEvaluatedKey and the counts so far. It exists only while a sweep
+ * is part-way through: the sweep that reaches the end of the scan deletes it. Abandoned
+ * checkpoints expire through the expiresAt TTL after 7 days.
+ */
+public class SweepCheckpointRepository {
+
+    private static final long RETENTION_SECONDS = 7 * 24 * 60 * 60;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public SweepCheckpointRepository() {
+        this(AwsClients.dynamoDb(), System.getenv("SWEEP_CHECKPOINT_TABLE"));
+    }
+
+    public SweepCheckpointRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Sweep checkpoint table name not configured");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Reads a checkpoint, or null if the sweep has none and starts from the beginning.
+     */
+    public Checkpoint load(String checkpointId) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(key(checkpointId))
+                .consistentRead(true)
+                .build());
+        if (!response.hasItem()) {
+            return null;
+        }
+
+        Map<String, AttributeValue> item = response.item();
+        return new Checkpoint(
+                item.get("lastEvaluatedKey").m(),
+                Long.parseLong(item.get("scanned").n()),
+                Long.parseLong(item.get("processed").n()),
+                Long.parseLong(item.get("startedAt").n()));
+    }
+
+    public void save(String checkpointId, Checkpoint checkpoint, long nowMillis) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("checkpointId", AttributeValue.builder().s(checkpointId).build());
+        item.put("lastEvaluatedKey", AttributeValue.builder().m(checkpoint.lastEvaluatedKey()).build());
+        item.put("scanned", number(checkpoint.scanned()));
+        item.put("processed", number(checkpoint.processed()));
+        item.put("startedAt", number(checkpoint.startedAt()));
+        item.put("updatedAt", number(nowMillis));
+        item.put("expiresAt", number(nowMillis / 1000 + RETENTION_SECONDS));
+
+        dynamoDbClient.putItem(PutItemRequest.builder().tableName(tableName).item(item).build());
+    }
+
+    public void clear(String checkpointId) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(key(checkpointId))
+                .build());
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    private static Map<String, AttributeValue> key(String checkpointId) {
+        return Map.of("checkpointId", AttributeValue.builder().s(checkpointId).build());
+    }
+
+    /**
+     * Where a sweep stopped and what it had done by then. startedAt is when the pass over the
+     * table began, which may be several invocations ago.
+     */
+    public record Checkpoint(Map<String, AttributeValue> lastEvaluatedKey, long scanned, long processed, long startedAt) {}
+}
@@ -0,0 +1,148 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Summaries of distributed sweep runs in the SweepRun table, one item per run.
+ *
+ * The coordinator writes the run with its segment count; each worker adds its segment's counts
+ * and error with one atomic update. The update also records the segment number in a set and is
+ * conditional on it not being there yet, so a segment redelivered by SQS is counted once. The
+ * worker whose update completes the last segment marks the run completed, or failed if any
+ * segment reported an error. Runs expire through the expiresAt TTL after 30 days.
+ */
+public class SweepRunRepository {
+
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private static final long RETENTION_SECONDS = 30 * 24 * 60 * 60;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public SweepRunRepository() {
+        this(AwsClients.dynamoDb(), System.getenv("SWEEP_RUN_TABLE"));
+    }
+
+    public SweepRunRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Sweep run table name not configured");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    public void start(String runId, String job, int totalSegments, long startedAt) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("runId", AttributeValue.builder().s(runId).build());
+        item.put("job", AttributeValue.builder().s(job).build());
+        item.put("status", AttributeValue.builder().s(RUNNING).build());
+        item.put("totalSegments", number(totalSegments));
+        item.put("segmentsDone", number(0));
+        item.put("scanned", number(0));
+        item.put("processed", number(0));
+        item.put("errors", number(0));
+        item.put("startedAt", number(startedAt));
+        item.put("expiresAt", number(startedAt / 1000 + RETENTION_SECONDS));
+
+        dynamoDbClient.putItem(PutItemRequest.builder().tableName(tableName).item(item).build());
+    }
+
+    /**
+     * Adds one segment's outcome to the run, completing the run if it was the last segment.
+     *
+     * @param error why the segment failed, or null if it succeeded
+     * @return false if the segment had already been recorded
+     */
+    public boolean recordSegment(String runId, int segment, long scanned, long processed, String error, long nowMillis) {
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#status", "status");
+
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":one", number(1));
+        expressionValues.put(":scanned", number(scanned));
+        expressionValues.put(":processed", number(processed));
+        expressionValues.put(":segment", number(segment));
+        expressionValues.put(":segments", AttributeValue.builder().ns(String.valueOf(segment)).build());
+        expressionValues.put(":now", number(nowMillis));
+        expressionValues.put(":running", AttributeValue.builder().s(RUNNING).build());
+
+        String updateExpression = "ADD segmentsDone :one, scanned :scanned, processed :processed, completedSegments :segments";
+        String setExpression = " SET updatedAt = :now";
+        if (error != null) {
+            updateExpression += ", errors :one";
+            setExpression += ", lastError = :error";
+            expressionValues.put(":error", AttributeValue.builder().s(error).build());
+        }
+
+        Map<String, AttributeValue> run;
+        try {
+            run = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key(runId))
+                    .updateExpression(updateExpression + setExpression)
+                    .conditionExpression("#status = :running AND NOT contains(completedSegments, :segment)")
+                    .expressionAttributeNames(expressionNames)
+                    .expressionAttributeValues(expressionValues)
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build()).attributes();
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+
+        if (longValue(run, "segmentsDone") >= longValue(run, "totalSegments")) {
+            finish(runId, longValue(run, "errors") > 0 ? FAILED : COMPLETED,
+                    nowMillis, nowMillis - longValue(run, "startedAt"));
+        }
+        return true;
+    }
+
+    private void finish(String runId, String status, long finishedAt, long durationMillis) {
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#status", "status");
+
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":status", AttributeValue.builder().s(status).build());
+        expressionValues.put(":finishedAt", number(finishedAt));
+        expressionValues.put(":duration", number(durationMillis));
+        expressionValues.put(":running", AttributeValue.builder().s(RUNNING).build());
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key(runId))
+                    .updateExpression("SET #status = :status, finishedAt = :finishedAt, durationMillis = :duration")
+                    .conditionExpression("#status = :running")
+                    .expressionAttributeNames(expressionNames)
+                    .expressionAttributeValues(expressionValues)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Already finished
+        }
+    }
+
+    private static long longValue(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value == null || value.n() == null ? 0 : Long.parseLong(value.n());
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    private static Map<String, AttributeValue> key(String runId) {
+        return Map.of("runId", AttributeValue.builder().s(runId).build());
+    }
+}
@@ -0,0 +1,757 @@
+package com.taskmanagementsystem.repository;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.exception.TaskUpdateConflictException;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.DeadlineBucketUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Data access for the Tasks table.
+ *
+ * Items are mapped with a hand-declared {@link StaticTableSchema}, so nothing is discovered by
+ * reflection or annotation scanning at startup. Whole-item reads and writes go through the
+ * enhanced client; partial updates with conditions use the low-level client.
+ *
+ * Writes that create a task or change its status or assignee also update the per-status
+ * counts in {@link TaskSummaryRepository}, in the same transaction as the task write. Writes
+ * that notify someone put their notifications in the Outbox table in that transaction too, so
+ * a notification is sent if and only if the change was stored. Writes that open a task or move
+ * its deadline replace the task's expiry timer in {@link TaskTimerRepository} the same way.
+ */
+public class TaskRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRepository.class);
+
+    public static final String ASSIGNEE_INDEX = "AssigneeIndex";
+
+    // BatchWriteItem accepts at most 25 items per request
+    private static final int MAX_BATCH_WRITE_SIZE = 25;
+    private static final int MAX_BATCH_WRITE_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    // Counted updates read the task first and retry if it changes before the transaction
+    private static final int MAX_TRANSACT_ATTEMPTS = 3;
+
+    public static final TableSchema<Tasks> TABLE_SCHEMA = StaticTableSchema.builder(Tasks.class)
+            .newItemSupplier(Tasks::new)
+            .addAttribute(String.class, a -> a.name("taskId")
+                    .getter(Tasks::getTaskId)
+                    .setter(Tasks::setTaskId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(String.class, a -> a.name("name")
+                    .getter(Tasks::getName)
+                    .setter(Tasks::setName))
+            .addAttribute(String.class, a -> a.name("description")
+                    .getter(Tasks::getDescription)
+                    .setter(Tasks::setDescription))
+            .addAttribute(String.class, a -> a.name("status")
+                    .getter(Tasks::getStatus)
+                    .setter(Tasks::setStatus)
+                    .tags(secondarySortKey(ASSIGNEE_INDEX)))
+            .addAttribute(Long.class, a -> a.name("deadline")
+                    .getter(Tasks::getDeadline)
+                    .setter(Tasks::setDeadline)
+                    .tags(secondarySortKey(DeadlineBucketUtil.INDEX_NAME)))
+            .addAttribute(String.class, a -> a.name("responsibility")
+                    .getter(Tasks::getResponsibility)
+                    .setter(Tasks::setResponsibility))
+            .addAttribute(String.class, a -> a.name("assignedUserEmail")
+                    .getter(Tasks::getAssignedUserEmail)
+                    .setter(Tasks::setAssignedUserEmail)
+                    .tags(secondaryPartitionKey(ASSIGNEE_INDEX)))
+            .addAttribute(String.class, a -> a.name("assignedUserId")
+                    .getter(Tasks::getAssignedUserId)
+                    .setter(Tasks::setAssignedUserId))
+            .addAttribute(Long.class, a -> a.name("completedAt")
+                    .getter(Tasks::getCompletedAt)
+                    .setter(Tasks::setCompletedAt))
+            .addAttribute(Long.class, a -> a.name("expiredAt")
+                    .getter(Tasks::getExpiredAt)
+                    .setter(Tasks::setExpiredAt))
+            .addAttribute(String.class, a -> a.name("userComment")
+                    .getter(Tasks::getUserComment)
+                    .setter(Tasks::setUserComment))
+            .addAttribute(String.class, a -> a.name("createdBy")
+                    .getter(Tasks::getCreatedBy)
+                    .setter(Tasks::setCreatedBy))
+            .addAttribute(Long.class, a -> a.name("createdAt")
+                    .getter(Tasks::getCreatedAt)
+                    .setter(Tasks::setCreatedAt))
+            .addAttribute(Long.class, a -> a.name("updatedAt")
+                    .getter(Tasks::getUpdatedAt)
+                    .setter(Tasks::setUpdatedAt))
+            .addAttribute(Boolean.class, a -> a.name("isClosed")
+                    .getter(Tasks::getIsClosed)
+                    .setter(Tasks::setIsClosed)
+                    .attributeConverter(LegacyBooleanConverter.create()))
+            .addAttribute(String.class, a -> a.name("closedAt")
+                    .getter(Tasks::getClosedAt)
+                    .setter(Tasks::setClosedAt))
+            .addAttribute(String.class, a -> a.name("adminComment")
+                    .getter(Tasks::getAdminComment)
+                    .setter(Tasks::setAdminComment))
+            .addAttribute(Long.class, a -> a.name("version")
+                    .getter(Tasks::getVersion)
+                    .setter(Tasks::setVersion))
+            .addAttribute(String.class, a -> a.name(DeadlineBucketUtil.ATTRIBUTE)
+                    .getter(Tasks::getOpenDeadlineBucket)
+                    .setter(Tasks::setOpenDeadlineBucket)
+                    .tags(secondaryPartitionKey(DeadlineBucketUtil.INDEX_NAME)))
+            .build();
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<Tasks> table;
+    private final String tableName;
+    private final TaskSummaryRepository summaryRepository;
+    private final OutboxRepository outboxRepository;
+    private final TaskTimerRepository timerRepository;
+
+    public TaskRepository() {
+        this(AwsClients.dynamoDb(), AwsClients.dynamoDbEnhanced(), System.getenv("TASK_TABLE"));
+    }
+
+    public TaskRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this(dynamoDbClient, enhancedClient, tableName,
+                new TaskSummaryRepository(dynamoDbClient, System.getenv("TASK_SUMMARY_TABLE")),
+                new OutboxRepository(),
+                new TaskTimerRepository());
+    }
+
+    public TaskRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName,
+                          TaskSummaryRepository summaryRepository, OutboxRepository outboxRepository,
+                          TaskTimerRepository timerRepository) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("Task table name not configured");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.table = enhancedClient.table(tableName, TABLE_SCHEMA);
+        this.summaryRepository = summaryRepository;
+        this.outboxRepository = outboxRepository;
+        this.timerRepository = timerRepository;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Tasks findById(String taskId) {
+        return table.getItem(Key.builder().partitionValue(taskId).build());
+    }
+
+    /**
+     * Reads a task with only the given attributes, or the whole task when attributes is null.
+     */
+    public Tasks findById(String taskId, Collection<String> attributes) {
+        if (attributes == null) {
+            return findById(taskId);
+        }
+
+        // The enhanced GetItem has no projection, so this goes through the low-level client
+        Map<String, String> expressionNames = new HashMap<>();
+        StringBuilder projection = new StringBuilder();
+        for (String attribute : attributes) {
+            String placeholder = "#p" + expressionNames.size();
+            expressionNames.put(placeholder, attribute);
+            if (projection.length() > 0) {
+                projection.append(", ");
+            }
+            projection.append(placeholder);
+        }
+
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(key(taskId))
+                .projectionExpression(projection.toString())
+                .expressionAttributeNames(expressionNames)
+                .build();
+
+        GetItemResponse response = dynamoDbClient.getItem(request);
+        return response.hasItem() ? toTask(response.item()) : null;
+    }
+
+    /**
+     * Writes a new task, generating a taskId and starting the version, and counts it in the
+     * task summary. Existing tasks are changed with {@link #update} so their counts stay right.
+     */
+    public void save(Tasks task) {
+        save(task, null);
+    }
+
+    /**
+     * Same as {@link #save(Tasks)}, also writing the events built from the saved task (which by
+     * then has its taskId) to the outbox in the same transaction. Events may be null.
+     */
+    public void save(Tasks task, Function<Tasks, List<OutboxEvent>> events) {
+        prepareNew(task);
+        List<OutboxEvent> outboxEvents = events == null ? List.of() : events.apply(task);
+        boolean timed = timerRepository.isEnabled() && TaskTimerRepository.isTimed(task.getStatus(), task.getDeadline());
+        if (!summaryRepository.isEnabled() && outboxEvents.isEmpty() && !timed) {
+            table.putItem(task);
+            return;
+        }
+
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(tableName)
+                        .item(toNewItem(task))
+                        // A repeated save must not count the task twice
+                        .conditionExpression("attribute_not_exists(taskId)")
+                        .build())
+                .build());
+        if (summaryRepository.isEnabled()) {
+            items.addAll(summaryRepository.transition(null, null, task.getStatus(), task.getAssignedUserEmail()));
+        }
+        for (OutboxEvent event : outboxEvents) {
+            items.add(outboxRepository.toPut(event));
+        }
+        if (timed) {
+            items.add(timerRepository.toPut(task.getTaskId(), task.getDeadline()));
+        }
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+    }
+
+    private static void prepareNew(Tasks task) {
+        if (task.getTaskId() == null) {
+            task.setTaskId(UUID.randomUUID().toString());
+        }
+        if (task.getVersion() == null) {
+            task.setVersion(1L);
+        }
+        // Derived from status and deadline so a full-item put always keeps the sparse index in sync
+        task.setOpenDeadlineBucket(DeadlineBucketUtil.bucketFor(task.getStatus(), task.getDeadline()));
+    }
+
+    /**
+     * The item for a new task, stamped as counted when the task summary is kept.
+     */
+    private Map<String, AttributeValue> toNewItem(Tasks task) {
+        Map<String, AttributeValue> item = TABLE_SCHEMA.itemToMap(task, true);
+        if (summaryRepository.isEnabled()) {
+            item = new HashMap<>(item);
+            item.put(TaskSummaryRepository.COUNTED_ATTRIBUTE, AttributeValue.builder().bool(true).build());
+        }
+        return item;
+    }
+
+    /**
+     * Writes many new tasks with BatchWriteItem, 25 per request, preparing each one as
+     * {@link #save} does. Items DynamoDB leaves unprocessed are resent with backoff. Batch writes
+     * cannot join a transaction, so the written tasks are counted in the task summary and get
+     * their expiry timers afterwards. A timer that cannot be written is logged and left to the
+     * expiry poll. A chunk whose request fails outright is reported as unwritten, so one error
+     * does not fail the tasks of the other chunks.
+     *
+     * @return ids of the tasks that were still unprocessed after the last attempt
+     */
+    public Set<String> saveAll(List<Tasks> tasks) {
+        Set<String> unwritten = new HashSet<>();
+        for (int from = 0; from < tasks.size(); from += MAX_BATCH_WRITE_SIZE) {
+            List<WriteRequest> writes = new ArrayList<>();
+            for (Tasks task : tasks.subList(from, Math.min(from + MAX_BATCH_WRITE_SIZE, tasks.size()))) {
+                prepareNew(task);
+                writes.add(WriteRequest.builder()
+                        .putRequest(PutRequest.builder().item(toNewItem(task)).build())
+                        .build());
+            }
+
+            List<WriteRequest> unprocessed;
+            try {
+                unprocessed = writeBatch(tableName, writes);
+            } catch (SdkException e) {
+                logger.warn("Batch write of {} tasks failed: {}", writes.size(), e.getMessage());
+                unprocessed = writes;
+            }
+            for (WriteRequest write : unprocessed) {
+                unwritten.add(write.putRequest().item().get("taskId").s());
+            }
+        }
+
+        if (timerRepository.isEnabled()) {
+            List<WriteRequest> timers = new ArrayList<>();
+            for (Tasks task : tasks) {
+                if (!unwritten.contains(task.getTaskId())
+                        && TaskTimerRepository.isTimed(task.getStatus(), task.getDeadline())) {
+                    timers.add(timerRepository.toWriteRequest(task.getTaskId(), task.getDeadline()));
+                }
+            }
+            List<String> untimed = new ArrayList<>();
+            for (int from = 0; from < timers.size(); from += MAX_BATCH_WRITE_SIZE) {
+                List<WriteRequest> chunk = timers.subList(from, Math.min(from + MAX_BATCH_WRITE_SIZE, timers.size()));
+                List<WriteRequest> unprocessed;
+                try {
+                    unprocessed = writeBatch(timerRepository.getTableName(), chunk);
+                } catch (SdkException e) {
+                    logger.warn("Batch write of {} timers failed: {}", chunk.size(), e.getMessage());
+                    unprocessed = chunk;
+                }
+                for (WriteRequest write : unprocessed) {
+                    untimed.add(write.putRequest().item().get("taskId").s());
+                }
+            }
+            if (!untimed.isEmpty()) {
+                logger.warn("No expiry timer written for {} tasks, leaving them to the expiry poll: {}", untimed.size(), untimed);
+            }
+        }
+
+        if (summaryRepository.isEnabled()) {
+            Map<String, Map<String, Long>> deltas = new LinkedHashMap<>();
+            for (Tasks task : tasks) {
+                if (!unwritten.contains(task.getTaskId())) {
+                    TaskSummaryRepository.addTask(deltas, task.getStatus(), task.getAssignedUserEmail(), 1);
+                }
+            }
+            try {
+                summaryRepository.addCounts(deltas);
+            } catch (SdkException e) {
+                // The tasks are stored; failing here would have the caller retry and create them again
+                logger.warn("Task summary not updated for the batch: {} {}", deltas, e.getMessage());
+            }
+        }
+        return unwritten;
+    }
+
+    /**
+     * Writes events to the outbox on their own, for notifications that summarise several task
+     * updates made earlier. The events are batch written, so the returned ids name the events
+     * that were still unprocessed after the retries; the caller decides how to report them.
+     */
+    public Set<String> publish(List<OutboxEvent> events) {
+        Set<String> unwritten = new LinkedHashSet<>();
+        if (events.isEmpty()) {
+            return unwritten;
+        }
+
+        String outboxTable = outboxRepository.getTableName();
+        for (int from = 0; from < events.size(); from += MAX_BATCH_WRITE_SIZE) {
+            List<WriteRequest> writes = new ArrayList<>();
+            for (OutboxEvent event : events.subList(from, Math.min(from + MAX_BATCH_WRITE_SIZE, events.size()))) {
+                writes.add(outboxRepository.toWriteRequest(event));
+            }
+            for (WriteRequest write : writeBatch(outboxTable, writes)) {
+                unwritten.add(write.putRequest().item().get("eventId").s());
+            }
+        }
+        return unwritten;
+    }
+
+    /**
+     * Reads one page of the whole table, starting after the given key (null for the first page).
+     */
+    public Page<Tasks> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        return scanPage(limit, exclusiveStartKey, null);
+    }
+
+    /**
+     * Same as {@link #scanPage(int, Map)}, reading only the given attributes (all when null).
+     */
+    public Page<Tasks> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey, Collection<String> attributes) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .limit(limit)
+                .exclusiveStartKey(exclusiveStartKey);
+        if (attributes != null) {
+            request.attributesToProject(attributes);
+        }
+        return table.scan(request.build()).iterator().next();
+    }
+
+    /**
+     * Reads one page of the tasks assigned to an email through the AssigneeIndex.
+     */
+    public Page<Tasks> queryByAssigneePage(String assignedUserEmail, int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        return queryByAssigneePage(assignedUserEmail, limit, exclusiveStartKey, null);
+    }
+
+    /**
+     * Same as {@link #queryByAssigneePage(String, int, Map)}, reading only the given attributes (all when null).
+     */
+    public Page<Tasks> queryByAssigneePage(String assignedUserEmail, int limit, Map<String, AttributeValue> exclusiveStartKey,
+                                           Collection<String> attributes) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(assignedUserEmail).build()))
+                .limit(limit)
+                .exclusiveStartKey(exclusiveStartKey);
+        if (attributes != null) {
+            request.attributesToProject(attributes);
+        }
+        return table.index(ASSIGNEE_INDEX).query(request.build()).iterator().next();
+    }
+
+    /**
+     * Lists the ids of all tasks assigned to an email through the AssigneeIndex, optionally only
+     * those whose stored status is one of the given values (all statuses when null).
+     */
+    public List<String> findTaskIdsByAssignee(String assignedUserEmail, Collection<String> statuses) {
+        List<QueryConditional> conditions = new ArrayList<>();
+        if (statuses == null) {
+            conditions.add(QueryConditional.keyEqualTo(Key.builder().partitionValue(assignedUserEmail).build()));
+        } else {
+            // status is the index sort key, so each value is its own key-condition query
+            for (String status : statuses) {
+                conditions.add(QueryConditional.keyEqualTo(
+                        Key.builder().partitionValue(assignedUserEmail).sortValue(status).build()));
+            }
+        }
+
+        List<String> taskIds = new ArrayList<>();
+        for (QueryConditional condition : conditions) {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(condition)
+                    .attributesToProject("taskId")
+                    .build();
+            for (Page<Tasks> page : table.index(ASSIGNEE_INDEX).query(request)) {
+                for (Tasks task : page.items()) {
+                    taskIds.add(task.getTaskId());
+                }
+            }
+        }
+        return taskIds;
+    }
+
+    /**
+     * Streams the open tasks of one OpenDeadlineIndex bucket whose deadline is in the inclusive window.
+     *
+     * @return the number of tasks passed to the consumer
+     */
+    public long forEachOpenTaskDue(String bucket, long startMillis, long endMillis, Consumer<Tasks> consumer) {
+        QueryConditional window = QueryConditional.sortBetween(
+                Key.builder().partitionValue(bucket).sortValue(startMillis).build(),
+                Key.builder().partitionValue(bucket).sortValue(endMillis).build());
+
+        long count = 0;
+        for (Page<Tasks> page : table.index(DeadlineBucketUtil.INDEX_NAME)
+                .query(QueryEnhancedRequest.builder().queryConditional(window).build())) {
+            for (Tasks task : page.items()) {
+                consumer.accept(task);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Marks an overdue task as expired, but only if it still has the status and deadline the
+     * sweep observed. Overlapping or retried sweeps therefore expire each task exactly once.
+     * The events built from the expired task are written to the outbox with it; they may be null.
+     *
+     * @return the expired task, or null if another writer changed or already expired it
+     */
+    public Tasks claimExpired(Tasks task, long nowMillis, Function<Tasks, List<OutboxEvent>> events) {
+        TaskUpdate update = new TaskUpdate()
+                .set("status", TaskStatus.EXPIRED)
+                .set("expiredAt", nowMillis)
+                .set("updatedAt", nowMillis)
+                .remove(DeadlineBucketUtil.ATTRIBUTE)
+                .requireEquals("status", task.getStatus())
+                .requireEquals("deadline", task.getDeadline());
+
+        try {
+            return update(task.getTaskId(), update, events);
+        } catch (TaskUpdateConflictException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reopens a task for a new assignee. Reopening puts the task back into the sparse deadline index.
+     * The events built from the reassigned task are written to the outbox with it; they may be null.
+     */
+    public void reassign(String taskId, String assignedUserEmail, String assignedUserId, Long deadline,
+                         Function<Tasks, List<OutboxEvent>> events) {
+        TaskUpdate update = new TaskUpdate()
+                .set("assignedUserEmail", assignedUserEmail)
+                .set("assignedUserId", assignedUserId)
+                .set("status", TaskStatus.OPEN);
+        String deadlineBucket = DeadlineBucketUtil.bucketFor(TaskStatus.OPEN, deadline);
+        if (deadlineBucket != null) {
+            update.set(DeadlineBucketUtil.ATTRIBUTE, deadlineBucket);
+        }
+
+        update(taskId, update, events);
+    }
+
+    /**
+     * Closes a task and takes it out of the sparse deadline index. The events built from the
+     * closed task are written to the outbox with it; they may be null.
+     *
+     * @return the task as it is after the update
+     * @throws TaskUpdateConflictException if the task does not exist
+     */
+    public Tasks close(String taskId, String adminComment, String closedAt, long updatedAt,
+                       Function<Tasks, List<OutboxEvent>> events) {
+        TaskUpdate update = new TaskUpdate()
+                .set("isClosed", true)
+                .set("closedAt", closedAt)
+                .set("adminComment", adminComment)
+                .set("updatedAt", updatedAt)
+                .set("status", TaskStatus.CLOSED)
+                .remove(DeadlineBucketUtil.ATTRIBUTE);
+
+        return update(taskId, update, events);
+    }
+
+    /**
+     * Applies a partial update in a single UpdateItem call. An update that changes the status,
+     * assignee or deadline is written in a transaction with the task summary counts and the
+     * expiry timer instead.
+     *
+     * @return the task as it is after the update
+     * @throws TaskUpdateConflictException if the stored task does not meet the update's conditions
+     */
+    public Tasks update(String taskId, TaskUpdate update) {
+        return update(taskId, update, null);
+    }
+
+    /**
+     * Same as {@link #update(String, TaskUpdate)}, also writing the events built from the updated
+     * task to the outbox in the same transaction. Events may be null.
+     */
+    public Tasks update(String taskId, TaskUpdate update, Function<Tasks, List<OutboxEvent>> events) {
+        boolean counted = summaryRepository.isEnabled() && (update.changes("status") || update.changes("assignedUserEmail"));
+        boolean timed = timerRepository.isEnabled() && (update.changes("status") || update.changes("deadline"));
+        if (counted && !update.changes(TaskSummaryRepository.COUNTED_ATTRIBUTE)) {
+            // Stamps tasks written before counting started, which the transition counts for the first time
+            update.set(TaskSummaryRepository.COUNTED_ATTRIBUTE, true);
+        }
+        if (counted || timed || events != null) {
+            return updateInTransaction(taskId, update, counted, timed, events);
+        }
+        try {
+            return toTask(dynamoDbClient.updateItem(update.toRequest(tableName, key(taskId))).attributes());
+        } catch (ConditionalCheckFailedException e) {
+            throw new TaskUpdateConflictException(e.hasItem() ? toTask(e.item()) : null);
+        }
+    }
+
+    /**
+     * Reads the task to learn which counts the update moves and what the updated task will be,
+     * then writes the update, the count changes, the expiry timer and the outbox events in one
+     * transaction that also requires the task to be unchanged since the read. If another write
+     * got in between, the read and transaction are repeated.
+     */
+    private Tasks updateInTransaction(String taskId, TaskUpdate update, boolean counted, boolean timed,
+                                      Function<Tasks, List<OutboxEvent>> events) {
+        for (int attempt = 1; ; attempt++) {
+            GetItemResponse current = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key(taskId))
+                    .consistentRead(true)
+                    .build());
+            if (!current.hasItem()) {
+                throw new TaskUpdateConflictException(null);
+            }
+
+            Map<String, AttributeValue> before = current.item();
+            Map<String, AttributeValue> after = update.applyTo(before);
+            long observedVersion = TaskUpdate.versionOf(before);
+
+            List<TransactWriteItem> items = new ArrayList<>();
+            items.add(TransactWriteItem.builder()
+                    .update(update.toTransactUpdate(tableName, key(taskId), observedVersion))
+                    .build());
+            if (counted) {
+                // A task that was never counted has nothing to subtract
+                boolean wasCounted = TaskSummaryRepository.isCounted(before);
+                items.addAll(summaryRepository.transition(
+                        wasCounted ? stringValue(before, "status") : null,
+                        wasCounted ? stringValue(before, "assignedUserEmail") : null,
+                        stringValue(after, "status"), stringValue(after, "assignedUserEmail")));
+            }
+            Tasks updated = toTask(after);
+            if (timed && TaskTimerRepository.isTimed(updated.getStatus(), updated.getDeadline())) {
+                items.add(timerRepository.toPut(taskId, updated.getDeadline()));
+            }
+            if (events != null) {
+                for (OutboxEvent event : events.apply(updated)) {
+                    items.add(outboxRepository.toPut(event));
+                }
+            }
+
+            try {
+                dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+                return updated;
+            } catch (TransactionCanceledException e) {
+                CancellationReason reason = e.hasCancellationReasons() ? e.cancellationReasons().get(0) : null;
+                boolean taskConditionFailed = reason != null && "ConditionalCheckFailed".equals(reason.code());
+                if (!taskConditionFailed) {
+                    // Another transaction touched the same items; try again
+                    if (attempt < MAX_TRANSACT_ATTEMPTS) {
+                        sleep(BASE_BACKOFF_MILLIS << (attempt - 1));
+                        continue;
+                    }
+                    throw e;
+                }
+
+                Map<String, AttributeValue> stored = reason.hasItem() ? reason.item() : null;
+                if (stored == null || stored.isEmpty()) {
+                    throw new TaskUpdateConflictException(null);
+                }
+                // Unchanged since the read, so it was the caller's own condition that failed
+                if (TaskUpdate.versionOf(stored) == observedVersion || attempt == MAX_TRANSACT_ATTEMPTS) {
+                    throw new TaskUpdateConflictException(toTask(stored));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a task written before the task summary existed and stamps it as counted, in one
+     * transaction that requires the task to be unchanged since it was read and not yet stamped.
+     * The item must include the version, status and assignedUserEmail.
+     *
+     * @return false if the task was counted or changed in the meantime, or the transaction was
+     *         cancelled; running the backfill again picks such tasks up
+     */
+    public boolean countInSummary(Map<String, AttributeValue> item) {
+        if (!summaryRepository.isEnabled() || TaskSummaryRepository.isCounted(item)) {
+            return false;
+        }
+
+        TaskUpdate stamp = new TaskUpdate().set(TaskSummaryRepository.COUNTED_ATTRIBUTE, true);
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder()
+                .update(stamp.toTransactUpdate(tableName, key(item.get("taskId").s()), TaskUpdate.versionOf(item)))
+                .build());
+        items.addAll(summaryRepository.transition(null, null,
+                stringValue(item, "status"), stringValue(item, "assignedUserEmail")));
+
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    private static String stringValue(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value == null ? null : value.s();
+    }
+
+    /**
+     * Brings openDeadlineBucket in line with the task's status and deadline after a partial update
+     * that could not derive it, such as a reopen that did not change the deadline. Skipped if the
+     * task has been written again since, because that write maintained the bucket itself.
+     */
+    public void syncDeadlineBucket(Tasks task) {
+        String bucket = DeadlineBucketUtil.bucketFor(task.getStatus(), task.getDeadline());
+        if (Objects.equals(bucket, task.getOpenDeadlineBucket())) {
+            return;
+        }
+
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#bucket", DeadlineBucketUtil.ATTRIBUTE);
+        expressionNames.put("#version", "version");
+
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":version", AttributeValue.builder().n(String.valueOf(task.getVersion())).build());
+
+        String updateExpression;
+        if (bucket == null) {
+            updateExpression = "REMOVE #bucket";
+        } else {
+            expressionValues.put(":bucket", AttributeValue.builder().s(bucket).build());
+            updateExpression = "SET #bucket = :bucket";
+        }
+
+        UpdateItemRequest updateRequest = UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(key(task.getTaskId()))
+                .updateExpression(updateExpression)
+                .conditionExpression("#version = :version")
+                .expressionAttributeNames(expressionNames)
+                .expressionAttributeValues(expressionValues)
+                .build();
+
+        try {
+            dynamoDbClient.updateItem(updateRequest);
+            task.setOpenDeadlineBucket(bucket);
+        } catch (ConditionalCheckFailedException e) {
+            // Written again in the meantime
+        }
+    }
+
+    /**
+     * Sends one batch, resending unprocessed items with exponential backoff.
+     *
+     * @return the writes that were still unprocessed after the last attempt
+     */
+    private List<WriteRequest> writeBatch(String table, List<WriteRequest> writes) {
+        List<WriteRequest> remaining = writes;
+        for (int attempt = 1; attempt <= MAX_BATCH_WRITE_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                sleep(BASE_BACKOFF_MILLIS << (attempt - 2));
+            }
+            BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(Map.of(table, remaining))
+                    .build());
+            remaining = response.unprocessedItems().getOrDefault(table, List.of());
+        }
+        return remaining;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Tasks toTask(Map<String, AttributeValue> item) {
+        return TABLE_SCHEMA.mapToItem(item);
+    }
+
+    public static Map<String, AttributeValue> key(String taskId) {
+        return Map.of("taskId", AttributeValue.builder().s(taskId).build());
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Task counts per status, kept in the TaskSummary table so dashboards can read them with one
+ * GetItem instead of listing tasks.
+ *
+ * There is one item per assignee ("user#" + email). Each holds a number per status, changed with
+ * atomic ADD updates that {@link TaskRepository} writes in the same transaction as the task itself.
+ * Counting is disabled when TASK_SUMMARY_TABLE is not set.
+ *
+ * The counts for all tasks ({@link #GLOBAL}) would otherwise be one item in every transaction, and
+ * concurrent transactions on one item cancel each other. They are spread over
+ * TASK_SUMMARY_GLOBAL_SHARDS items ("global#0" and up, default 10), each write picking one at
+ * random, and summed on read together with the unsharded "global" item written before sharding.
+ *
+ * Every counted task carries summaryCounted = true. A task without it was written before
+ * counting started, so its old status is not subtracted when it changes; the change counts it
+ * and stamps it instead. TaskBackfillHandler counts and stamps the tasks that never change.
+ */
+public class TaskSummaryRepository {
+
+    public static final String GLOBAL = "global";
+    public static final List<String> COUNTED_STATUSES = List.of(
+            TaskStatus.OPEN, TaskStatus.COMPLETED, TaskStatus.EXPIRED, TaskStatus.CLOSED);
+    public static final String COUNTED_ATTRIBUTE = "summaryCounted";
+    private static final int MAX_GLOBAL_SHARDS = 99;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final int globalShards;
+
+    public TaskSummaryRepository() {
+        this(AwsClients.dynamoDb(), System.getenv("TASK_SUMMARY_TABLE"));
+    }
+
+    public TaskSummaryRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        this(dynamoDbClient, tableName, readGlobalShards());
+    }
+
+    public TaskSummaryRepository(DynamoDbClient dynamoDbClient, String tableName, int globalShards) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.globalShards = Math.max(1, Math.min(globalShards, MAX_GLOBAL_SHARDS));
+    }
+
+    public boolean isEnabled() {
+        return tableName != null && !tableName.isEmpty();
+    }
+
+    public static String userSummaryId(String email) {
+        return "user#" + email;
+    }
+
+    /**
+     * Whether the stored task is already included in the counts.
+     */
+    public static boolean isCounted(Map<String, AttributeValue> item) {
+        AttributeValue counted = item.get(COUNTED_ATTRIBUTE);
+        return counted != null && Boolean.TRUE.equals(counted.bool());
+    }
+
+    /**
+     * Reads the counts of one summary item, or of all global shards summed. Statuses that were
+     * never counted read as 0.
+     */
+    public Map<String, Long> getCounts(String summaryId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String status : COUNTED_STATUSES) {
+            counts.put(status, 0L);
+        }
+
+        if (!GLOBAL.equals(summaryId)) {
+            GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key(summaryId))
+                    .build());
+            if (response.hasItem()) {
+                addItem(counts, response.item());
+            }
+            return counts;
+        }
+
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        keys.add(key(GLOBAL));
+        for (int shard = 0; shard < globalShards; shard++) {
+            keys.add(key(globalShardId(shard)));
+        }
+        Map<String, KeysAndAttributes> request = Map.of(tableName, KeysAndAttributes.builder().keys(keys).build());
+        while (!request.isEmpty()) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(request)
+                    .build());
+            for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                addItem(counts, item);
+            }
+            request = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+        }
+        return counts;
+    }
+
+    private static void addItem(Map<String, Long> counts, Map<String, AttributeValue> item) {
+        for (String status : COUNTED_STATUSES) {
+            AttributeValue count = item.get(status);
+            if (count != null && count.n() != null) {
+                counts.merge(status, Long.parseLong(count.n()), Long::sum);
+            }
+        }
+    }
+
+    static String globalShardId(int shard) {
+        return GLOBAL + "#" + shard;
+    }
+
+    /**
+     * Counter updates for a task moving from one status and assignee to another. Either side
+     * may be null for a task being created or deleted.
+     *
+     * @return one update per summary item whose counts change, none if nothing is counted differently
+     */
+    List<TransactWriteItem> transition(String oldStatus, String oldAssignee, String newStatus, String newAssignee) {
+        Map<String, Map<String, Long>> deltas = new LinkedHashMap<>();
+        addTask(deltas, oldStatus, oldAssignee, -1);
+        addTask(deltas, newStatus, newAssignee, 1);
+
+        List<TransactWriteItem> items = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Long>> delta : deltas.entrySet()) {
+            Update update = toUpdate(delta.getKey(), delta.getValue());
+            if (update != null) {
+                items.add(TransactWriteItem.builder().update(update).build());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Adds a task's status to the per-assignee and global deltas.
+     */
+    static void addTask(Map<String, Map<String, Long>> deltas, String status, String assignee, long count) {
+        String counted = TaskStatus.canonical(status);
+        if (counted == null) {
+            return;
+        }
+        deltas.computeIfAbsent(GLOBAL, k -> new HashMap<>()).merge(counted, count, Long::sum);
+        if (assignee != null && !assignee.isEmpty()) {
+            deltas.computeIfAbsent(userSummaryId(assignee), k -> new HashMap<>()).merge(counted, count, Long::sum);
+        }
+    }
+
+    /**
+     * Applies deltas outside a transaction, one UpdateItem per summary item. Used after batch
+     * writes, which cannot be combined with other items in a transaction.
+     */
+    public void addCounts(Map<String, Map<String, Long>> deltas) {
+        for (Map.Entry<String, Map<String, Long>> delta : deltas.entrySet()) {
+            Update update = toUpdate(delta.getKey(), delta.getValue());
+            if (update != null) {
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(update.tableName())
+                        .key(update.key())
+                        .updateExpression(update.updateExpression())
+                        .expressionAttributeNames(update.expressionAttributeNames())
+                        .expressionAttributeValues(update.expressionAttributeValues())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Builds the ADD update for one summary item, or null if all its deltas cancel out.
+     */
+    private Update toUpdate(String summaryId, Map<String, Long> statusDeltas) {
+        Map<String, String> expressionNames = new HashMap<>();
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        List<String> additions = new ArrayList<>();
+        for (Map.Entry<String, Long> statusDelta : statusDeltas.entrySet()) {
+            if (statusDelta.getValue() == 0) {
+                continue;
+            }
+            String index = String.valueOf(additions.size());
+            expressionNames.put("#s" + index, statusDelta.getKey());
+            expressionValues.put(":d" + index, AttributeValue.builder().n(String.valueOf(statusDelta.getValue())).build());
+            additions.add("#s" + index + " :d" + index);
+        }
+        if (additions.isEmpty()) {
+            return null;
+        }
+
+        // Each update picks its own global shard, so one transaction still writes one item per summary
+        String itemId = GLOBAL.equals(summaryId)
+                ? globalShardId(ThreadLocalRandom.current().nextInt(globalShards))
+                : summaryId;
+        return Update.builder()
+                .tableName(tableName)
+                .key(key(itemId))
+                .updateExpression("ADD " + String.join(", ", additions))
+                .expressionAttributeNames(expressionNames)
+                .expressionAttributeValues(expressionValues)
+                .build();
+    }
+
+    private static Map<String, AttributeValue> key(String summaryId) {
+        return Map.of("summaryId", AttributeValue.builder().s(summaryId).build());
+    }
+
+    private static int readGlobalShards() {
+        String value = System.getenv("TASK_SUMMARY_GLOBAL_SHARDS");
+        return value == null || value.isEmpty() ? 10 : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,77 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskmanagementsystem.entities.TaskStatus;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Expiry timers in the TaskTimer table: one item per open task whose expiresAt TTL is the
+ * task's deadline.
+ *
+ * {@link TaskRepository} writes the timer with every change that opens a task or moves its
+ * deadline, replacing the previous one. When the deadline passes, DynamoDB's TTL deletes the
+ * item and the table stream hands the deletion to the expiry handler. Timers of tasks that were
+ * completed or closed in the meantime are left to fire; the handler ignores them. Timers are
+ * disabled when TASK_TIMER_TABLE is not set.
+ */
+public class TaskTimerRepository {
+
+    private final String tableName;
+
+    public TaskTimerRepository() {
+        this(System.getenv("TASK_TIMER_TABLE"));
+    }
+
+    public TaskTimerRepository(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public boolean isEnabled() {
+        return tableName != null && !tableName.isEmpty();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Whether a task with this status and deadline needs a timer.
+     */
+    static boolean isTimed(String status, Long deadline) {
+        return deadline != null && TaskStatus.OPEN.equals(TaskStatus.canonical(status));
+    }
+
+    /**
+     * Builds the put of a timer for a transaction.
+     */
+    TransactWriteItem toPut(String taskId, long deadline) {
+        return TransactWriteItem.builder()
+                .put(Put.builder().tableName(tableName).item(toItem(taskId, deadline)).build())
+                .build();
+    }
+
+    /**
+     * Builds the put of a timer for a batch write.
+     */
+    WriteRequest toWriteRequest(String taskId, long deadline) {
+        return WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(toItem(taskId, deadline)).build())
+                .build();
+    }
+
+    private static Map<String, AttributeValue> toItem(String taskId, long deadline) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("taskId", AttributeValue.builder().s(taskId).build());
+        item.put("deadline", AttributeValue.builder().n(String.valueOf(deadline)).build());
+        // TTL is in seconds; rounding up keeps the timer from firing before the deadline
+        item.put("expiresAt", AttributeValue.builder().n(String.valueOf((deadline + 999) / 1000)).build());
+        return item;
+    }
+}
@@ -0,0 +1,214 @@
+package com.taskmanagementsystem.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * A partial task update: the attributes to set or remove and the conditions the stored task
+ * must meet. Applied by {@link TaskRepository#update} as a single UpdateItem call that also
+ * increments the task's version.
+ *
+ * Every attribute name goes through a placeholder, since several task attributes (name,
+ * status) are DynamoDB reserved words. The values set are also kept, so the task after the
+ * update can be worked out when the write goes through a transaction, which returns nothing.
+ */
+public class TaskUpdate {
+
+    private final Map<String, String> placeholders = new HashMap<>();
+    private final Map<String, String> expressionNames = new HashMap<>();
+    private final Map<String, AttributeValue> expressionValues = new HashMap<>();
+    private final List<String> setClauses = new ArrayList<>();
+    private final List<String> removeClauses = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, AttributeValue> assignments = new HashMap<>();
+    private final Set<String> removals = new HashSet<>();
+
+    public TaskUpdate set(String attribute, String value) {
+        return set(attribute, AttributeValue.builder().s(value).build());
+    }
+
+    public TaskUpdate set(String attribute, long value) {
+        return set(attribute, number(value));
+    }
+
+    public TaskUpdate set(String attribute, boolean value) {
+        return set(attribute, AttributeValue.builder().bool(value).build());
+    }
+
+    private TaskUpdate set(String attribute, AttributeValue value) {
+        setClauses.add(name(attribute) + " = " + value(value));
+        assignments.put(attribute, value);
+        removals.remove(attribute);
+        return this;
+    }
+
+    public TaskUpdate remove(String attribute) {
+        removeClauses.add(name(attribute));
+        removals.add(attribute);
+        assignments.remove(attribute);
+        return this;
+    }
+
+    /**
+     * Requires the stored attribute to equal the value.
+     */
+    public TaskUpdate requireEquals(String attribute, String value) {
+        conditions.add(name(attribute) + " = " + value(AttributeValue.builder().s(value).build()));
+        return this;
+    }
+
+    public TaskUpdate requireEquals(String attribute, long value) {
+        conditions.add(name(attribute) + " = " + value(number(value)));
+        return this;
+    }
+
+    /**
+     * Requires the stored attribute to be one of the values.
+     */
+    public TaskUpdate requireIn(String attribute, Collection<String> values) {
+        List<String> placeholdersForValues = new ArrayList<>();
+        for (String value : values) {
+            placeholdersForValues.add(value(AttributeValue.builder().s(value).build()));
+        }
+        conditions.add(name(attribute) + " IN (" + String.join(", ", placeholdersForValues) + ")");
+        return this;
+    }
+
+    /**
+     * Requires the stored task to be at the expected version. Version 0 matches tasks written
+     * before versioning, which have no version attribute.
+     */
+    public TaskUpdate requireVersion(long expectedVersion) {
+        if (expectedVersion == 0) {
+            conditions.add("attribute_not_exists(" + name("version") + ")");
+        } else {
+            conditions.add(name("version") + " = " + value(number(expectedVersion)));
+        }
+        return this;
+    }
+
+    public boolean hasChanges() {
+        return !setClauses.isEmpty() || !removeClauses.isEmpty();
+    }
+
+    /**
+     * Whether the update sets or removes the attribute.
+     */
+    public boolean changes(String attribute) {
+        return assignments.containsKey(attribute) || removals.contains(attribute);
+    }
+
+    UpdateItemRequest toRequest(String tableName, Map<String, AttributeValue> key) {
+        Expressions expressions = expressions(null);
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(key)
+                .updateExpression(expressions.update())
+                .conditionExpression(expressions.condition())
+                .expressionAttributeNames(expressions.names())
+                .expressionAttributeValues(expressions.values())
+                .returnValues(ReturnValue.ALL_NEW)
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+    }
+
+    /**
+     * Builds the update as part of a transaction, additionally requiring the task to still be at
+     * the version it was read at (0 for a task without a version).
+     */
+    Update toTransactUpdate(String tableName, Map<String, AttributeValue> key, long observedVersion) {
+        Expressions expressions = expressions(observedVersion);
+        return Update.builder()
+                .tableName(tableName)
+                .key(key)
+                .updateExpression(expressions.update())
+                .conditionExpression(expressions.condition())
+                .expressionAttributeNames(expressions.names())
+                .expressionAttributeValues(expressions.values())
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+    }
+
+    /**
+     * Returns the item as it will be after this update is applied to the given stored item.
+     */
+    Map<String, AttributeValue> applyTo(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> updated = new HashMap<>(item);
+        updated.putAll(assignments);
+        updated.keySet().removeAll(removals);
+        updated.put("version", number(versionOf(item) + 1));
+        return updated;
+    }
+
+    static long versionOf(Map<String, AttributeValue> item) {
+        AttributeValue version = item.get("version");
+        return version == null || version.n() == null ? 0 : Long.parseLong(version.n());
+    }
+
+    /**
+     * Assembles the expressions on copies of the placeholder maps, so a request can be built
+     * again (for example on a retry) without adding placeholders twice.
+     */
+    private Expressions expressions(Long observedVersion) {
+        Map<String, String> names = new HashMap<>(expressionNames);
+        Map<String, AttributeValue> values = new HashMap<>(expressionValues);
+        names.put("#version", "version");
+        names.put("#taskId", "taskId");
+        values.put(":zero", number(0));
+        values.put(":one", number(1));
+
+        List<String> sets = new ArrayList<>(setClauses);
+        sets.add("#version = if_not_exists(#version, :zero) + :one");
+        String updateExpression = "SET " + String.join(", ", sets);
+        if (!removeClauses.isEmpty()) {
+            updateExpression += " REMOVE " + String.join(", ", removeClauses);
+        }
+
+        // Never let an update create a task that does not exist
+        List<String> allConditions = new ArrayList<>();
+        allConditions.add("attribute_exists(#taskId)");
+        allConditions.addAll(conditions);
+        if (observedVersion != null) {
+            if (observedVersion == 0) {
+                allConditions.add("attribute_not_exists(#version)");
+            } else {
+                values.put(":observedVersion", number(observedVersion));
+                allConditions.add("#version = :observedVersion");
+            }
+        }
+
+        return new Expressions(updateExpression, String.join(" AND ", allConditions), names, values);
+    }
+
+    private String name(String attribute) {
+        return placeholders.computeIfAbsent(attribute, a -> {
+            String placeholder = "#a" + expressionNames.size();
+            expressionNames.put(placeholder, a);
+            return placeholder;
+        });
+    }
+
+    private String value(AttributeValue value) {
+        String placeholder = ":v" + expressionValues.size();
+        expressionValues.put(placeholder, value);
+        return placeholder;
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    private record Expressions(String update, String condition, Map<String, String> names,
+                               Map<String, AttributeValue> values) {}
+}
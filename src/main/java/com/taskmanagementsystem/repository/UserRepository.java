@@ -0,0 +1,106 @@
+package com.taskmanagementsystem.repository;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import com.taskmanagementsystem.entities.Users;
+import com.taskmanagementsystem.util.AwsClients;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+
+/**
+ * Data access for the Users table, mapped with a hand-declared {@link StaticTableSchema}.
+ */
+public class UserRepository {
+
+    public static final String EMAIL_INDEX = "EmailIndex";
+
+    // "admin" is the attribute name the v1 DynamoDBMapper derived from isAdmin(), kept for existing items
+    public static final TableSchema<Users> TABLE_SCHEMA = StaticTableSchema.builder(Users.class)
+            .newItemSupplier(Users::new)
+            .addAttribute(String.class, a -> a.name("userId")
+                    .getter(Users::getUserId)
+                    .setter(Users::setUserId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(String.class, a -> a.name("username")
+                    .getter(Users::getUsername)
+                    .setter(Users::setUsername))
+            .addAttribute(String.class, a -> a.name("email")
+                    .getter(Users::getEmail)
+                    .setter(Users::setEmail)
+                    .tags(secondaryPartitionKey(EMAIL_INDEX)))
+            .addAttribute(String.class, a -> a.name("cognitoUsername")
+                    .getter(Users::getCognitoUsername)
+                    .setter(Users::setCognitoUsername))
+            .addAttribute(String.class, a -> a.name("firstName")
+                    .getter(Users::getFirstName)
+                    .setter(Users::setFirstName))
+            .addAttribute(String.class, a -> a.name("lastName")
+                    .getter(Users::getLastName)
+                    .setter(Users::setLastName))
+            .addAttribute(Boolean.class, a -> a.name("admin")
+                    .getter(Users::isAdmin)
+                    .setter((user, admin) -> user.setAdmin(Boolean.TRUE.equals(admin)))
+                    .attributeConverter(LegacyBooleanConverter.create()))
+            .addAttribute(Long.class, a -> a.name("createdAt")
+                    .getter(Users::getCreatedAt)
+                    .setter(Users::setCreatedAt))
+            .addAttribute(Long.class, a -> a.name("updatedAt")
+                    .getter(Users::getUpdatedAt)
+                    .setter(Users::setUpdatedAt))
+            .build();
+
+    private final DynamoDbTable<Users> table;
+
+    public UserRepository() {
+        this(AwsClients.dynamoDbEnhanced(), System.getenv("USER_TABLE"));
+    }
+
+    public UserRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalStateException("User table name not configured");
+        }
+        this.table = enhancedClient.table(tableName, TABLE_SCHEMA);
+    }
+
+    /**
+     * Writes the whole user, generating a userId for new users.
+     */
+    public void save(Users user) {
+        if (user.getUserId() == null) {
+            user.setUserId(UUID.randomUUID().toString());
+        }
+        table.putItem(user);
+    }
+
+    /**
+     * Looks up a userId through the EmailIndex, reading only the userId attribute.
+     *
+     * @return the userId, or null if no user has this email
+     */
+    public String findUserIdByEmail(String email) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(email).build()))
+                .attributesToProject("userId")
+                .limit(1)
+                .build();
+
+        Iterator<Page<Users>> pages = table.index(EMAIL_INDEX).query(request).iterator();
+        if (!pages.hasNext()) {
+            return null;
+        }
+        List<Users> users = pages.next().items();
+        return users.isEmpty() ? null : users.get(0).getUserId();
+    }
+}
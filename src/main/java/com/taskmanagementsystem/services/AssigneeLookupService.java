@@ -0,0 +1,120 @@
+package com.taskmanagementsystem.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.UserUtils;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersRequest;
+
+/**
+ * Checks that a task assignee exists and resolves their userId.
+ *
+ * Lookups go to the Users table's EmailIndex through the container-wide user cache, so
+ * repeated and bulk task creation costs at most one indexed query per distinct assignee.
+ * Cognito ListUsers has a low rate quota and is only asked on a miss, and only when
+ * ASSIGNEE_COGNITO_FALLBACK is true, for users that exist in the pool but not in the table.
+ * A lookup that fails is reported as such, never as a missing user.
+ */
+public class AssigneeLookupService {
+
+    private final UserRepository userRepository;
+    private final boolean cognitoFallback;
+    private final String userPoolId;
+
+    public AssigneeLookupService(UserRepository userRepository) {
+        this(userRepository,
+                Boolean.parseBoolean(System.getenv("ASSIGNEE_COGNITO_FALLBACK")),
+                System.getenv("USER_POOL_ID"));
+    }
+
+    public AssigneeLookupService(UserRepository userRepository, boolean cognitoFallback, String userPoolId) {
+        this.userRepository = userRepository;
+        this.cognitoFallback = cognitoFallback;
+        this.userPoolId = userPoolId;
+    }
+
+    /**
+     * Looks up an assignee by email.
+     *
+     * @return the assignee, or null if no user has this email. The userId is null for a user
+     *         found only through the Cognito fallback.
+     * @throws UserLookupException if the Users table or Cognito could not be queried
+     */
+    public Assignee resolve(String email, Context context) {
+        String userId = UserUtils.getUserIdByEmail(userRepository, email, context);
+        if (userId != null) {
+            return new Assignee(email, userId);
+        }
+        if (cognitoFallback && existsInCognito(email, context)) {
+            context.getLogger().log("Assignee " + email + " found in Cognito but not in the Users table");
+            return new Assignee(email, null);
+        }
+        return null;
+    }
+
+    /**
+     * Looks up many assignees at once. Each distinct email is resolved once, with the
+     * EmailIndex queries for cache misses run concurrently.
+     *
+     * @return the assignee for every email that belongs to a user, and the emails whose lookup failed
+     */
+    public Assignees resolveAll(Collection<String> emails, Context context) {
+        Set<String> failed = new HashSet<>();
+        Map<String, String> userIds = UserUtils.getUserIdsByEmail(userRepository, emails, context, failed);
+
+        Map<String, Assignee> assignees = new HashMap<>();
+        for (String email : new LinkedHashSet<>(emails)) {
+            if (email == null || email.isEmpty() || failed.contains(email)) {
+                continue;
+            }
+            String userId = userIds.get(email);
+            if (userId != null) {
+                assignees.put(email, new Assignee(email, userId));
+            } else if (cognitoFallback) {
+                try {
+                    if (existsInCognito(email, context)) {
+                        context.getLogger().log("Assignee " + email + " found in Cognito but not in the Users table");
+                        assignees.put(email, new Assignee(email, null));
+                    }
+                } catch (UserLookupException e) {
+                    failed.add(email);
+                }
+            }
+        }
+        return new Assignees(assignees, failed);
+    }
+
+    private boolean existsInCognito(String email, Context context) {
+        try {
+            ListUsersRequest request = ListUsersRequest.builder()
+                    .userPoolId(userPoolId)
+                    .filter("email = \"" + email + "\"")
+                    .limit(1)
+                    .build();
+            // The client is only built if the fallback is ever used
+            CognitoIdentityProviderClient cognitoClient = AwsClients.cognito();
+            return !cognitoClient.listUsers(request).users().isEmpty();
+        } catch (Exception e) {
+            context.getLogger().log("Cognito lookup failed for " + email + ": " + e.getMessage());
+            throw new UserLookupException(email, e);
+        }
+    }
+
+    public record Assignee(String email, String userId) {}
+
+    /**
+     * Result of {@link #resolveAll}: the assignees found, by email, and the emails that could not
+     * be looked up and should be retried.
+     */
+    public record Assignees(Map<String, Assignee> found, Set<String> failed) {}
+}
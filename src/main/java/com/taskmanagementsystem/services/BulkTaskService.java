@@ -0,0 +1,154 @@
+package com.taskmanagementsystem.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.exception.TaskUpdateConflictException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskUpdate;
+
+/**
+ * Applies the same conditional update to many tasks, for the bulk reassign and close endpoints.
+ *
+ * Tasks are chosen either by id or by assignee (and optionally status). Each task gets its own
+ * conditional UpdateItem, run concurrently, so one task failing its condition does not affect
+ * the others and nothing needs to be read first.
+ */
+public class BulkTaskService {
+
+    public static final int DEFAULT_MAX_TASKS = 500;
+    private static final int MAX_CONCURRENT_WRITES = 10;
+
+    private final TaskRepository taskRepository;
+    private final int maxTasks;
+
+    public BulkTaskService(TaskRepository taskRepository) {
+        this(taskRepository, readMaxTasks());
+    }
+
+    public BulkTaskService(TaskRepository taskRepository, int maxTasks) {
+        this.taskRepository = taskRepository;
+        this.maxTasks = maxTasks;
+    }
+
+    /**
+     * Works out which tasks a bulk request targets: the given ids, or else every task assigned to
+     * the email, limited to one status if given.
+     *
+     * @throws IllegalArgumentException if neither or both are given, the status is unknown, or
+     *                                  more than the allowed number of tasks are targeted
+     */
+    public List<String> selectTaskIds(List<String> taskIds, String assignedUserEmail, String status) {
+        boolean byId = taskIds != null && !taskIds.isEmpty();
+        boolean bySelector = assignedUserEmail != null && !assignedUserEmail.isEmpty();
+        if (byId == bySelector) {
+            throw new IllegalArgumentException("Provide either taskIds or a selector with assignedUserEmail");
+        }
+
+        List<String> selected;
+        if (byId) {
+            selected = new ArrayList<>(new LinkedHashSet<>(taskIds));
+            selected.removeIf(taskId -> taskId == null || taskId.isEmpty());
+        } else {
+            String canonicalStatus = null;
+            if (status != null) {
+                canonicalStatus = TaskStatus.canonical(status);
+                if (canonicalStatus == null) {
+                    throw new IllegalArgumentException("Unknown status");
+                }
+            }
+            selected = taskRepository.findTaskIdsByAssignee(assignedUserEmail,
+                    canonicalStatus == null ? null : TaskStatus.storedValues(canonicalStatus));
+        }
+
+        if (selected.size() > maxTasks) {
+            throw new IllegalArgumentException("At most " + maxTasks + " tasks can be updated per request");
+        }
+        return selected;
+    }
+
+    /**
+     * Applies a fresh update from the supplier to each task, several at a time.
+     *
+     * @return one outcome per task, in the order given
+     */
+    public List<TaskOutcome> apply(List<String> taskIds, Supplier<TaskUpdate> updateSupplier, Context context) {
+        List<TaskOutcome> outcomes = new ArrayList<>();
+        if (taskIds.isEmpty()) {
+            return outcomes;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_WRITES, taskIds.size()));
+        try {
+            List<Future<TaskOutcome>> results = new ArrayList<>();
+            for (String taskId : taskIds) {
+                results.add(executor.submit(() -> applyOne(taskId, updateSupplier.get())));
+            }
+
+            for (int i = 0; i < taskIds.size(); i++) {
+                try {
+                    outcomes.add(results.get(i).get());
+                } catch (ExecutionException e) {
+                    context.getLogger().log("Error updating task " + taskIds.get(i) + ": " + e.getCause().getMessage());
+                    outcomes.add(new TaskOutcome(taskIds.get(i), TaskOutcome.ERROR, "Task could not be updated, please retry", null));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = outcomes.size(); i < taskIds.size(); i++) {
+                outcomes.add(new TaskOutcome(taskIds.get(i), TaskOutcome.ERROR, "Task could not be updated, please retry", null));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return outcomes;
+    }
+
+    private TaskOutcome applyOne(String taskId, TaskUpdate update) {
+        try {
+            Tasks task = taskRepository.update(taskId, update);
+            // Reopened tasks could not set the index bucket in the same write
+            taskRepository.syncDeadlineBucket(task);
+            return new TaskOutcome(taskId, TaskOutcome.UPDATED, null, task);
+        } catch (TaskUpdateConflictException e) {
+            Tasks current = e.getCurrentTask();
+            if (current == null) {
+                return new TaskOutcome(taskId, TaskOutcome.NOT_FOUND, "Task not found", null);
+            }
+            return new TaskOutcome(taskId, TaskOutcome.CONFLICT, "Task is " + current.getStatus(), null);
+        }
+    }
+
+    private static int readMaxTasks() {
+        String value = System.getenv("MAX_BULK_TASKS");
+        return value == null || value.isEmpty() ? DEFAULT_MAX_TASKS : Integer.parseInt(value);
+    }
+
+    /**
+     * Result of updating one task. The updated task is kept for notifications but not returned.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record TaskOutcome(String taskId, String status, String message, @JsonIgnore Tasks task) {
+
+        public static final String UPDATED = "updated";
+        public static final String NOT_FOUND = "not_found";
+        public static final String CONFLICT = "conflict";
+        public static final String ERROR = "error";
+
+        @JsonIgnore
+        public boolean isUpdated() {
+            return UPDATED.equals(status);
+        }
+    }
+}
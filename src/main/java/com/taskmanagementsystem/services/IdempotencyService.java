@@ -0,0 +1,168 @@
+package com.taskmanagementsystem.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.taskmanagementsystem.repository.IdempotencyRepository;
+import com.taskmanagementsystem.repository.IdempotencyRepository.IdempotencyRecord;
+import com.taskmanagementsystem.util.HeadersUtil;
+
+/**
+ * Runs a POST request at most once per Idempotency-Key header.
+ *
+ * Keys are scoped to the caller (the Cognito sub) and the method and path, so clients only need
+ * keys that are unique among their own requests. The first request with a key runs and its
+ * response is stored for IDEMPOTENCY_TTL_HOURS (24 by default); a retry with the same key and
+ * body gets that response back with an Idempotent-Replayed header. A retry while the first is
+ * still running gets 409, and reusing a key with a different body gets 422. Responses with a
+ * 5xx status are not stored, so the client can retry them. Requests without the header run as
+ * before.
+ */
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final long lockMillis;
+    private final long retentionSeconds;
+
+    public IdempotencyService() {
+        this(new IdempotencyRepository(), readLong("IDEMPOTENCY_LOCK_SECONDS", 60) * 1000,
+                readLong("IDEMPOTENCY_TTL_HOURS", 24) * 3600);
+    }
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository, long lockMillis, long retentionSeconds) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.lockMillis = lockMillis;
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    /**
+     * Runs the request unless a request with the same Idempotency-Key has already been seen.
+     */
+    public APIGatewayProxyResponseEvent execute(APIGatewayProxyRequestEvent request, Context context,
+                                                Supplier<APIGatewayProxyResponseEvent> handler) {
+        String clientKey = headerValue(request.getHeaders());
+        String caller = caller(request);
+        if (clientKey == null || caller == null) {
+            // Unauthenticated requests are rejected by the handler anyway
+            return handler.get();
+        }
+        if (clientKey.length() > MAX_KEY_LENGTH) {
+            return error(400, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String idempotencyKey = caller + "#" + request.getHttpMethod() + " " + request.getPath() + "#" + clientKey;
+        String requestHash = hash(request.getBody());
+        long startedAt = System.currentTimeMillis();
+        // Also identifies this call's claim on the key when completing or releasing it
+        long lockExpiresAt = startedAt + lockMillis;
+        IdempotencyRecord existing = idempotencyRepository.begin(idempotencyKey, requestHash,
+                startedAt, lockExpiresAt, retentionSeconds);
+        if (existing != null) {
+            return replay(existing, requestHash, context);
+        }
+
+        APIGatewayProxyResponseEvent response;
+        try {
+            response = handler.get();
+        } catch (RuntimeException e) {
+            idempotencyRepository.release(idempotencyKey, lockExpiresAt);
+            throw e;
+        }
+
+        try {
+            if (response.getStatusCode() != null && response.getStatusCode() < 500) {
+                boolean stored = idempotencyRepository.complete(idempotencyKey, requestHash, lockExpiresAt,
+                        response.getStatusCode(), response.getBody(), response.getHeaders(),
+                        System.currentTimeMillis(), retentionSeconds);
+                if (!stored) {
+                    context.getLogger().log("Lock on " + idempotencyKey + " expired before the request finished;"
+                            + " response not stored");
+                }
+            } else {
+                idempotencyRepository.release(idempotencyKey, lockExpiresAt);
+            }
+        } catch (RuntimeException e) {
+            // The request itself succeeded; a retry after the lock expires would run it again
+            context.getLogger().log("Error storing idempotent response for " + idempotencyKey + ": " + e.getMessage());
+        }
+        return response;
+    }
+
+    private APIGatewayProxyResponseEvent replay(IdempotencyRecord existing, String requestHash, Context context) {
+        if (!existing.requestHash().equals(requestHash)) {
+            return error(422, HEADER + " was already used for a different request");
+        }
+        if (!IdempotencyRepository.COMPLETED.equals(existing.status())) {
+            return error(409, "A request with this " + HEADER + " is still in progress");
+        }
+
+        context.getLogger().log("Replaying stored response for " + HEADER);
+        Map<String, String> headers = new HashMap<>(existing.headers());
+        headers.put("Idempotent-Replayed", "true");
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setStatusCode(existing.statusCode());
+        response.setHeaders(headers);
+        response.setBody(existing.body());
+        return response;
+    }
+
+    private static String headerValue(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            // API Gateway passes header names through with the client's casing
+            if (HEADER.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isBlank()) {
+                return header.getValue().trim();
+            }
+        }
+        return null;
+    }
+
+    private static String caller(APIGatewayProxyRequestEvent request) {
+        if (request.getRequestContext() == null || request.getRequestContext().getAuthorizer() == null) {
+            return null;
+        }
+        Object claims = request.getRequestContext().getAuthorizer().get("claims");
+        if (!(claims instanceof Map<?, ?> claimMap)) {
+            return null;
+        }
+        Object sub = claimMap.get("sub");
+        return sub != null ? sub.toString() : null;
+    }
+
+    private static String hash(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(body).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static APIGatewayProxyResponseEvent error(int statusCode, String message) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setStatusCode(statusCode);
+        response.setHeaders(HeadersUtil.getHeaders());
+        response.setBody("{\"message\": \"" + message + "\"}");
+        return response;
+    }
+
+    private static long readLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+}
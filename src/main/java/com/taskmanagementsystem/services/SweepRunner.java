@@ -0,0 +1,132 @@
+package com.taskmanagementsystem.services;
+
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.taskmanagementsystem.repository.SweepCheckpointRepository;
+import com.taskmanagementsystem.repository.SweepCheckpointRepository.Checkpoint;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.ParallelScanner;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * Runs a scan page by page within the invocation's time limit, resuming where the last
+ * invocation stopped.
+ *
+ * After each processed page the LastEvaluatedKey and counts are saved as a checkpoint. Before
+ * reading the next page the runner checks {@link Context#getRemainingTimeInMillis()}, and once
+ * less than SWEEP_TIME_RESERVE_MILLIS is left it stops. The next run with the same checkpoint
+ * id continues from the saved key, so a sweep always makes progress however large the table.
+ * A page whose processing fails is read again on the next run, so processing must be
+ * idempotent.
+ *
+ * Pages are read through a {@link ParallelScanner}, so they count against its SCAN_RCU_BUDGET,
+ * and {@link #runAll} sweeps the scanner's segments in parallel under that one budget.
+ */
+public class SweepRunner {
+
+    private static final long DEFAULT_TIME_RESERVE_MILLIS = 10_000;
+
+    private final ParallelScanner scanner;
+    private final SweepCheckpointRepository checkpoints;
+    private final long timeReserveMillis;
+
+    public SweepRunner() {
+        this(new ParallelScanner(AwsClients.dynamoDb()), new SweepCheckpointRepository(), readTimeReserveMillis());
+    }
+
+    public SweepRunner(ParallelScanner scanner, SweepCheckpointRepository checkpoints, long timeReserveMillis) {
+        this.scanner = scanner;
+        this.checkpoints = checkpoints;
+        this.timeReserveMillis = timeReserveMillis;
+    }
+
+    /**
+     * Runs every segment of the scanner in parallel, each from its own checkpoint
+     * (checkpointPrefix + "#" + segment + "/" + totalSegments). A segment that fails is left
+     * at its last checkpoint and counted as incomplete.
+     */
+    public Result runAll(String checkpointPrefix, ScanRequest template, Context context, PageProcessor processor) {
+        List<ParallelScanner.SegmentOutcome<Result>> outcomes = scanner.forEachSegment((segment, totalSegments) ->
+                run(checkpointPrefix + "#" + segment + "/" + totalSegments, template, segment, totalSegments,
+                        context, processor));
+
+        long scanned = 0;
+        long processed = 0;
+        boolean complete = true;
+        for (ParallelScanner.SegmentOutcome<Result> outcome : outcomes) {
+            if (outcome.failure() != null) {
+                complete = false;
+                context.getLogger().log("Error sweeping segment: " + outcome.failure().getMessage());
+                continue;
+            }
+            scanned += outcome.result().scanned();
+            processed += outcome.result().processed();
+            complete &= outcome.result().complete();
+        }
+        return new Result(complete, scanned, processed);
+    }
+
+    /**
+     * Scans from the checkpoint (or the start) until the scan ends or time runs short.
+     *
+     * @param segment the scan segment to read, or null for the whole table
+     * @param processor called once per page; returns how many items it acted on
+     */
+    public Result run(String checkpointId, ScanRequest template, Integer segment, Integer totalSegments,
+                      Context context, PageProcessor processor) throws Exception {
+        Checkpoint checkpoint = checkpoints.load(checkpointId);
+        Map<String, AttributeValue> startKey = checkpoint == null ? null : checkpoint.lastEvaluatedKey();
+        long scanned = checkpoint == null ? 0 : checkpoint.scanned();
+        long processed = checkpoint == null ? 0 : checkpoint.processed();
+        long startedAt = checkpoint == null ? System.currentTimeMillis() : checkpoint.startedAt();
+        if (checkpoint != null) {
+            context.getLogger().log("Resuming sweep " + checkpointId + " after " + scanned + " items");
+        }
+
+        while (context.getRemainingTimeInMillis() > timeReserveMillis) {
+            ScanRequest.Builder request = template.toBuilder().exclusiveStartKey(startKey);
+            if (segment != null) {
+                request.segment(segment).totalSegments(totalSegments);
+            }
+            ScanResponse response = scanner.scanPage(request.build());
+
+            processed += processor.process(response.items());
+            scanned += response.items().size();
+
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+            if (startKey == null) {
+                if (checkpoint != null) {
+                    checkpoints.clear(checkpointId);
+                }
+                return new Result(true, scanned, processed);
+            }
+            checkpoint = new Checkpoint(startKey, scanned, processed, startedAt);
+            checkpoints.save(checkpointId, checkpoint, System.currentTimeMillis());
+        }
+
+        context.getLogger().log("Sweep " + checkpointId + " stopped before the time limit after " + scanned + " items");
+        return new Result(false, scanned, processed);
+    }
+
+    private static long readTimeReserveMillis() {
+        String value = System.getenv("SWEEP_TIME_RESERVE_MILLIS");
+        return value == null || value.isEmpty() ? DEFAULT_TIME_RESERVE_MILLIS : Long.parseLong(value);
+    }
+
+    @FunctionalInterface
+    public interface PageProcessor {
+        long process(List<Map<String, AttributeValue>> items) throws Exception;
+    }
+
+    /**
+     * Counts cover the whole pass over the table, including earlier invocations.
+     */
+    public record Result(boolean complete, long scanned, long processed) {}
+}
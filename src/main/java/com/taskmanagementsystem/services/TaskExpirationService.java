@@ -0,0 +1,143 @@
+package com.taskmanagementsystem.services;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.util.UserUtils;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Expires overdue tasks. Shared by the scheduled sweep and the timer-driven expiry handler.
+ *
+ * Each task is claimed with a conditional status update, so a task is expired exactly once
+ * even when the sweep and a timer, or two sweeps, see it at the same time. The task's item for
+ * the expiration workflow is written to the outbox in the same transaction as the claim, and
+ * the outbox relay starts the state machine for it. A task is therefore either still open, and
+ * picked up again by the next sweep, or expired with its notification on the way.
+ */
+public class TaskExpirationService {
+
+    private static final int CLAIM_CONCURRENCY = 8;
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final String stepFunctionArn;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public TaskExpirationService() {
+        this(new TaskRepository(), new UserRepository());
+    }
+
+    public TaskExpirationService(TaskRepository taskRepository, UserRepository userRepository) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.stepFunctionArn = System.getenv("EXPIRED_TASK_STATE_MACHINE_ARN");
+    }
+
+    /**
+     * Expires the tasks of each page of an overdue-task scan run by {@link SweepRunner}. Tasks
+     * that fail to claim are still open, so the next sweep finds them again.
+     */
+    public SweepRunner.PageProcessor pageProcessor(long now, Context context) {
+        return items -> {
+            List<Tasks> overdueTasks = new ArrayList<>();
+            for (Map<String, AttributeValue> item : items) {
+                overdueTasks.add(taskRepository.toTask(item));
+            }
+            return claim(overdueTasks, now, context).expired().size();
+        };
+    }
+
+    /**
+     * Claims the overdue tasks concurrently, each together with its workflow outbox event.
+     * Tasks that fail to claim are logged and returned as failed; they are left open.
+     */
+    public ClaimResult claim(Collection<Tasks> overdueTasks, long now, Context context) throws InterruptedException {
+        List<Tasks> expiredTasks = new ArrayList<>();
+        List<Tasks> failedTasks = new ArrayList<>();
+        if (overdueTasks.isEmpty()) {
+            return new ClaimResult(expiredTasks, failedTasks);
+        }
+
+        // Only tasks written before assignedUserId existed need a lookup, once per distinct assignee
+        List<String> assigneeEmails = new ArrayList<>();
+        for (Tasks task : overdueTasks) {
+            if (task.getAssignedUserId() == null) {
+                assigneeEmails.add(task.getAssignedUserEmail());
+            }
+        }
+        Map<String, String> userIds = assigneeEmails.isEmpty()
+                ? Map.of()
+                : UserUtils.getUserIdsByEmail(userRepository, assigneeEmails, context);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(CLAIM_CONCURRENCY, overdueTasks.size()));
+        try {
+            List<Tasks> tasks = new ArrayList<>(overdueTasks);
+            List<Future<Tasks>> claims = new ArrayList<>();
+            for (Tasks task : tasks) {
+                claims.add(executor.submit(() -> taskRepository.claimExpired(task, now,
+                        expired -> List.of(workflowEvent(expired, userIds)))));
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                Tasks task = tasks.get(i);
+                try {
+                    Tasks expired = claims.get(i).get();
+                    if (expired != null) {
+                        expiredTasks.add(expired);
+                    }
+                } catch (ExecutionException e) {
+                    context.getLogger().log("Error expiring task " + task.getTaskId() + ": " + e.getCause().getMessage());
+                    failedTasks.add(task);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        context.getLogger().log("Expired " + expiredTasks.size() + " of " + overdueTasks.size() + " overdue tasks");
+        return new ClaimResult(expiredTasks, failedTasks);
+    }
+
+    /**
+     * The task's item in the expiration workflow's "tasks" input.
+     */
+    private OutboxEvent workflowEvent(Tasks task, Map<String, String> userIds) {
+        //get the user id and pass it to the step function
+        String userId = task.getAssignedUserId() != null ? task.getAssignedUserId() : userIds.get(task.getAssignedUserEmail());
+
+        Map<String, String> item = new HashMap<>();
+        item.put("taskId", task.getTaskId());
+        item.put("name", task.getName());
+        item.put("assignedUserEmail", task.getAssignedUserEmail());
+        if (userId != null) {
+            item.put("userId", userId);
+        }
+
+        try {
+            return OutboxEvent.workflow(stepFunctionArn, objectMapper.writeValueAsString(item));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The tasks this call expired, and those whose claim failed and are still open.
+     */
+    public record ClaimResult(List<Tasks> expired, List<Tasks> failed) {}
+}
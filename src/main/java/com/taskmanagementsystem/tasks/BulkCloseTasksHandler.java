@@ -0,0 +1,192 @@
+package com.taskmanagementsystem.tasks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskUpdate;
+import com.taskmanagementsystem.services.BulkTaskService;
+import com.taskmanagementsystem.util.DeadlineBucketUtil;
+import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+
+import software.amazon.awssdk.http.HttpStatusCode;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Closes many tasks at once (POST /tasks/bulk/close).
+ *
+ * Each task is closed with its own conditional update, so tasks that are already closed are
+ * reported as conflicts and not notified twice. Each affected assignee gets one email listing
+ * their closed tasks. The emails are written to the outbox in one batch after the updates and
+ * delivered by the relay; users whose email could not be written are listed in the response
+ * under notificationsFailed.
+ */
+public class BulkCloseTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final InitTimer initTimer = InitTimer.start(BulkCloseTasksHandler.class);
+
+    private final TaskRepository taskRepository;
+    private final BulkTaskService bulkTaskService;
+    private final String closedTaskTopicArn;
+
+    public BulkCloseTasksHandler() {
+        this.taskRepository = new TaskRepository();
+        this.bulkTaskService = new BulkTaskService(taskRepository);
+        this.closedTaskTopicArn = System.getenv("CLOSED_TASK_TOPIC_ARN");
+        initTimer.stop();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        initTimer.report(context);
+
+        try {
+            Map<String, Object> authorizer = requestEvent.getRequestContext().getAuthorizer();
+            if (authorizer == null || !authorizer.containsKey("claims")) {
+                return createResponse(HttpStatusCode.UNAUTHORIZED, "Authorizer claims not found");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
+            if (!"admin".equals(claims.get("custom:role"))) {
+                return createResponse(HttpStatusCode.FORBIDDEN, "Only administrators can close a task");
+            }
+
+            BulkTaskRequest request;
+            try {
+                request = objectMapper.readValue(requestEvent.getBody(), BulkTaskRequest.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, "Invalid request format");
+            }
+            if (request == null) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, "Invalid request format");
+            }
+
+            List<String> taskIds;
+            try {
+                BulkTaskRequest.Selector selector = request.selector();
+                taskIds = bulkTaskService.selectTaskIds(request.taskIds(),
+                        selector == null ? null : selector.assignedUserEmail(),
+                        selector == null ? null : selector.status());
+            } catch (IllegalArgumentException e) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, e.getMessage());
+            }
+
+            long now = System.currentTimeMillis();
+            String closedAt = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            String adminComment = request.adminComment();
+            List<BulkTaskService.TaskOutcome> outcomes = bulkTaskService.apply(taskIds, () -> {
+                TaskUpdate update = new TaskUpdate()
+                        .set("status", TaskStatus.CLOSED)
+                        .set("isClosed", true)
+                        .set("closedAt", closedAt)
+                        .set("updatedAt", now)
+                        .remove(DeadlineBucketUtil.ATTRIBUTE)
+                        .requireIn("status", TaskStatus.allowedPrevious(TaskStatus.CLOSED));
+                if (adminComment != null) {
+                    update.set("adminComment", adminComment);
+                }
+                return update;
+            }, context);
+
+            // Group the closed tasks by assignee so each gets a single email
+            Map<String, List<Tasks>> closedByUser = new LinkedHashMap<>();
+            int closed = 0;
+            for (BulkTaskService.TaskOutcome outcome : outcomes) {
+                if (!outcome.isUpdated()) {
+                    continue;
+                }
+                closed++;
+                Tasks task = outcome.task();
+                if (task.getAssignedUserId() == null) {
+                    context.getLogger().log("No userId on task " + task.getTaskId() + ", skipping close email");
+                    continue;
+                }
+                closedByUser.computeIfAbsent(task.getAssignedUserId(), k -> new ArrayList<>()).add(task);
+            }
+            List<String> notificationsFailed = notifyAssignees(closedByUser, adminComment, context);
+
+            context.getLogger().log("Bulk close: " + closed + " of " + outcomes.size() + " tasks closed, "
+                    + (closedByUser.size() - notificationsFailed.size()) + " users notified, "
+                    + notificationsFailed.size() + " notifications failed");
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(closed == outcomes.size() && notificationsFailed.isEmpty() ? HttpStatusCode.OK : 207)
+                    .withBody(objectMapper.writeValueAsString(Map.of(
+                            "updated", closed,
+                            "failed", outcomes.size() - closed,
+                            "results", outcomes,
+                            "notificationsFailed", notificationsFailed
+                    )))
+                    .withHeaders(HeadersUtil.getHeaders());
+
+        } catch (Exception e) {
+            context.getLogger().log("Error closing tasks: " + e.getMessage());
+            return createResponse(HttpStatusCode.INTERNAL_SERVER_ERROR, "Error closing tasks");
+        }
+    }
+
+    /**
+     * Writes one close email per user to the outbox.
+     *
+     * @return the userIds whose email could not be written
+     */
+    private List<String> notifyAssignees(Map<String, List<Tasks>> closedByUser, String adminComment, Context context) {
+        List<OutboxEvent> events = new ArrayList<>();
+        Map<String, String> userByEvent = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Tasks>> user : closedByUser.entrySet()) {
+            List<String> taskNames = new ArrayList<>();
+            for (Tasks task : user.getValue()) {
+                taskNames.add(task.getName());
+            }
+
+            String message = String.format("The following %d task(s) assigned to you have been closed: %s",
+                    taskNames.size(), String.join(", ", taskNames));
+            if (adminComment != null && !adminComment.isEmpty()) {
+                message += "\nAdmin comment: " + adminComment;
+            }
+            OutboxEvent event = OutboxEvent.sns(closedTaskTopicArn, "Tasks Closed", message, Map.of("userId", user.getKey()));
+            events.add(event);
+            userByEvent.put(event.getEventId(), user.getKey());
+        }
+
+        Set<String> unwritten;
+        try {
+            unwritten = taskRepository.publish(events);
+        } catch (RuntimeException e) {
+            // The tasks are closed either way; report every user as not notified
+            context.getLogger().log("Error writing close notifications: " + e.getMessage());
+            unwritten = userByEvent.keySet();
+        }
+
+        List<String> failedUsers = new ArrayList<>();
+        for (String eventId : unwritten) {
+            failedUsers.add(userByEvent.get(eventId));
+        }
+        return failedUsers;
+    }
+
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String message) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent()
+                .withStatusCode(statusCode)
+                .withHeaders(HeadersUtil.getHeaders());
+        try {
+            return response.withBody(objectMapper.writeValueAsString(Map.of("message", message)));
+        } catch (JsonProcessingException e) {
+            return response.withBody("{\"message\": \"Error generating error response\"}");
+        }
+    }
+}
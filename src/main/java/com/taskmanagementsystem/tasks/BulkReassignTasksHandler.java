@@ -0,0 +1,161 @@
+package com.taskmanagementsystem.tasks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskUpdate;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.AssigneeLookupService;
+import com.taskmanagementsystem.services.BulkTaskService;
+import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+
+import software.amazon.awssdk.http.HttpStatusCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reassigns many closed or expired tasks to one user (POST /tasks/bulk/reassign).
+ *
+ * Each task is reopened for the new assignee with its own conditional update, so tasks that
+ * are not closed or expired are reported as conflicts and left alone. The new assignee gets
+ * one email listing all the tasks instead of one email per task. The email is written to the
+ * outbox after the updates and delivered by the relay; the response reports notified=false
+ * when it could not be written.
+ */
+public class BulkReassignTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> REASSIGNABLE_STATUSES = Set.of(TaskStatus.CLOSED, TaskStatus.EXPIRED);
+    private final InitTimer initTimer = InitTimer.start(BulkReassignTasksHandler.class);
+
+    private final TaskRepository taskRepository;
+    private final BulkTaskService bulkTaskService;
+    private final AssigneeLookupService assigneeLookupService;
+    private final String taskAssignmentTopic;
+
+    public BulkReassignTasksHandler() {
+        this.taskRepository = new TaskRepository();
+        this.bulkTaskService = new BulkTaskService(taskRepository);
+        this.assigneeLookupService = new AssigneeLookupService(new UserRepository());
+        this.taskAssignmentTopic = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
+        initTimer.stop();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        initTimer.report(context);
+
+        try {
+            Map<String, Object> authorizer = requestEvent.getRequestContext().getAuthorizer();
+            if (authorizer == null || !authorizer.containsKey("claims")) {
+                return createResponse(HttpStatusCode.UNAUTHORIZED, "Authorizer claims not found");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
+            if (!"admin".equals(claims.get("custom:role"))) {
+                return createResponse(HttpStatusCode.FORBIDDEN, "Forbidden: Only admins can reassign tasks");
+            }
+
+            BulkTaskRequest request;
+            try {
+                request = objectMapper.readValue(requestEvent.getBody(), BulkTaskRequest.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, "Invalid request format");
+            }
+            if (request == null || request.assignedTo() == null || request.assignedTo().isEmpty()) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, "assignedTo is required");
+            }
+
+            List<String> taskIds;
+            try {
+                BulkTaskRequest.Selector selector = request.selector();
+                taskIds = bulkTaskService.selectTaskIds(request.taskIds(),
+                        selector == null ? null : selector.assignedUserEmail(),
+                        selector == null ? null : selector.status());
+            } catch (IllegalArgumentException e) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, e.getMessage());
+            }
+
+            String newAssigneeEmail = request.assignedTo();
+            AssigneeLookupService.Assignee assignee;
+            try {
+                assignee = assigneeLookupService.resolve(newAssigneeEmail, context);
+            } catch (UserLookupException e) {
+                context.getLogger().log(e.getMessage());
+                return createResponse(HttpStatusCode.SERVICE_UNAVAILABLE, "The user could not be looked up, please retry");
+            }
+            if (assignee == null || assignee.userId() == null) {
+                return createResponse(HttpStatusCode.BAD_REQUEST, "User not found for email: " + newAssigneeEmail);
+            }
+
+            long now = System.currentTimeMillis();
+            List<BulkTaskService.TaskOutcome> outcomes = bulkTaskService.apply(taskIds, () -> new TaskUpdate()
+                    .set("assignedUserEmail", newAssigneeEmail)
+                    .set("assignedUserId", assignee.userId())
+                    .set("status", TaskStatus.OPEN)
+                    .set("updatedAt", now)
+                    .requireIn("status", REASSIGNABLE_STATUSES), context);
+
+            List<String> taskNames = new ArrayList<>();
+            for (BulkTaskService.TaskOutcome outcome : outcomes) {
+                if (outcome.isUpdated()) {
+                    taskNames.add(outcome.task().getName());
+                }
+            }
+
+            // One email for the whole batch
+            boolean notified = true;
+            if (!taskNames.isEmpty()) {
+                String emailMessage = taskNames.size() == 1
+                        ? String.format("You have been reassigned to task %s", taskNames.get(0))
+                        : String.format("You have been reassigned to %d tasks: %s", taskNames.size(), String.join(", ", taskNames));
+                try {
+                    notified = taskRepository.publish(List.of(OutboxEvent.sns(taskAssignmentTopic, null, emailMessage,
+                            Map.of("userId", assignee.userId())))).isEmpty();
+                } catch (RuntimeException e) {
+                    // The tasks are reassigned either way
+                    context.getLogger().log("Error writing reassignment notification: " + e.getMessage());
+                    notified = false;
+                }
+            }
+
+            context.getLogger().log("Bulk reassign to " + newAssigneeEmail + ": " + taskNames.size() + " of "
+                    + outcomes.size() + " tasks reassigned, notified=" + notified);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(taskNames.size() == outcomes.size() && notified ? HttpStatusCode.OK : 207)
+                    .withBody(objectMapper.writeValueAsString(Map.of(
+                            "updated", taskNames.size(),
+                            "failed", outcomes.size() - taskNames.size(),
+                            "results", outcomes,
+                            "notified", notified
+                    )))
+                    .withHeaders(HeadersUtil.getHeaders());
+
+        } catch (Exception e) {
+            context.getLogger().log("Error in BulkReassignTasksHandler: " + e.getMessage());
+            return createResponse(HttpStatusCode.INTERNAL_SERVER_ERROR, "Internal server error");
+        }
+    }
+
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String message) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent()
+                .withStatusCode(statusCode)
+                .withHeaders(HeadersUtil.getHeaders());
+        try {
+            return response.withBody(objectMapper.writeValueAsString(Map.of("message", message)));
+        } catch (JsonProcessingException e) {
+            return response.withBody("{\"message\": \"Error generating error response\"}");
+        }
+    }
+}
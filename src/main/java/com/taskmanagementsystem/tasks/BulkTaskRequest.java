@@ -0,0 +1,15 @@
+package com.taskmanagementsystem.tasks;
+
+import java.util.List;
+
+/**
+ * Body of the bulk task endpoints. The tasks are given either as taskIds or by a selector;
+ * assignedTo is used by bulk reassign and adminComment by bulk close.
+ */
+public record BulkTaskRequest(List<String> taskIds, Selector selector, String assignedTo, String adminComment) {
+
+    /**
+     * Every task assigned to an email, optionally only those with the given status.
+     */
+    public record Selector(String assignedUserEmail, String status) {}
+}
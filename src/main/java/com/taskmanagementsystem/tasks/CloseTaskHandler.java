@@ -4,39 +4,51 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.exception.TaskUpdateConflictException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.services.IdempotencyService;
 import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
 
 import software.amazon.awssdk.http.HttpStatusCode;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
-import software.amazon.awssdk.regions.Region;
 
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Closes a task (POST /tasks/{taskId}/close). The closed-task notification is written to the
+ * outbox in the same transaction and delivered by the outbox relay. Retries that send the same
+ * Idempotency-Key get the first response back.
+ */
 public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(CloseTaskHandler.class);
     private final ObjectMapper mapper = new ObjectMapper();
-    private final String REGION = System.getenv("REGION");
 
-    private final DynamoDbClient dynamoDbClient = DynamoDbClient.builder()
-            .region(Region.of(REGION))
-            .build();
-    private final SnsClient snsClient = SnsClient.builder()
-            .region(Region.of(REGION))
-            .build();
+    private final TaskRepository taskRepository = new TaskRepository();
+    private final IdempotencyService idempotencyService = new IdempotencyService();
 
-    private final String taskTable = System.getenv("TASK_TABLE");
     private final String closedTaskTopicArn = System.getenv("CLOSED_TASK_TOPIC_ARN");
 
+    public CloseTaskHandler() {
+        initTimer.stop();
+    }
+
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        initTimer.report(context);
+        return idempotencyService.execute(request, context, () -> closeTask(request, context));
+    }
+
+    private APIGatewayProxyResponseEvent closeTask(APIGatewayProxyRequestEvent request, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -69,52 +81,18 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
             }
 
             CloseTaskRequest closeTaskRequest = mapper.readValue(request.getBody(), CloseTaskRequest.class);
-            Map<String, AttributeValue> key = new HashMap<>();
-            key.put("taskId", AttributeValue.builder().s(taskId).build());
-
             // Convert LocalDateTime to appropriate formats
             long updatedAtTimestamp = Instant.now().getEpochSecond(); // Unix timestamp for updatedAt
             String closedAtString = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME); // ISO string for closedAt
 
-            Map<String, String> expressionAttributeNames = new HashMap<>();
-            expressionAttributeNames.put("#status", "status");
-
-            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-            expressionAttributeValues.put(":isClosed", AttributeValue.builder().bool(true).build());
-            expressionAttributeValues.put(":closedAt", AttributeValue.builder().s(closedAtString).build());
-            expressionAttributeValues.put(":adminComment", AttributeValue.builder().s(closeTaskRequest.adminComment()).build());
-            expressionAttributeValues.put(":updatedAt", AttributeValue.builder().n(String.valueOf(updatedAtTimestamp)).build());
-            expressionAttributeValues.put(":statusVal", AttributeValue.builder().s(String.valueOf("closed")).build());
-
-            UpdateItemRequest updateItemRequest = UpdateItemRequest.builder()
-                    .tableName(taskTable)
-                    .key(key)
-                    .updateExpression("SET isClosed = :isClosed, closedAt = :closedAt, adminComment = :adminComment, updatedAt = :updatedAt, #status = :statusVal")
-                    .expressionAttributeNames(expressionAttributeNames)
-                    .expressionAttributeValues(expressionAttributeValues)
-                    .returnValues("ALL_NEW")
-                    .build();
-            var updateResult = dynamoDbClient.updateItem(updateItemRequest);
-
-            Map<String, AttributeValue> attributes = updateResult.attributes();
-            String taskName = attributes.get("name").s();
-            String assignedUserEmail = attributes.get("assignedUserEmail").s();
-            String status = attributes.get("status").s();
-
-            Map<String, String> messageAttributes = new HashMap<>();
-            messageAttributes.put("email", assignedUserEmail);
-            messageAttributes.put("taskId", taskId);
-            messageAttributes.put("taskName", taskName);
-            messageAttributes.put("status", status);
-            messageAttributes.put("isClosed", "true");
-            messageAttributes.put("adminComment", closeTaskRequest.adminComment());
-
-            PublishRequest publishRequest = PublishRequest.builder()
-                    .topicArn(closedTaskTopicArn)
-                    .message(mapper.writeValueAsString(messageAttributes))
-                    .subject("Task Closed: " + taskName)
-                    .build();
-            snsClient.publish(publishRequest);
+            try {
+                taskRepository.close(taskId, closeTaskRequest.adminComment(), closedAtString, updatedAtTimestamp,
+                        closed -> List.of(closedEvent(closed, closeTaskRequest.adminComment())));
+            } catch (TaskUpdateConflictException e) {
+                return response
+                        .withStatusCode(HttpStatusCode.NOT_FOUND)
+                        .withBody("{\"message\": \"Task not found\"}");
+            }
 
             return response
                     .withStatusCode(200)
@@ -128,5 +106,22 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
         }
     }
 
+    private OutboxEvent closedEvent(Tasks closed, String adminComment) {
+        Map<String, String> messageAttributes = new HashMap<>();
+        messageAttributes.put("email", closed.getAssignedUserEmail());
+        messageAttributes.put("taskId", closed.getTaskId());
+        messageAttributes.put("taskName", closed.getName());
+        messageAttributes.put("status", closed.getStatus());
+        messageAttributes.put("isClosed", "true");
+        messageAttributes.put("adminComment", adminComment);
+
+        try {
+            return OutboxEvent.sns(closedTaskTopicArn, "Task Closed: " + closed.getName(),
+                    mapper.writeValueAsString(messageAttributes), null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public record CloseTaskRequest(String adminComment) {}
 }
\ No newline at end of file
@@ -1,86 +1,66 @@
 package com.taskmanagementsystem.tasks;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
 import com.taskmanagementsystem.entities.Tasks;
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.AssigneeLookupService;
+import com.taskmanagementsystem.services.IdempotencyService;
+import com.taskmanagementsystem.util.DeadlineBucketUtil;
+import com.taskmanagementsystem.util.InitTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersResponse;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
-import software.amazon.awssdk.services.sns.model.PublishResponse;
-import software.amazon.awssdk.services.sns.model.SnsException;
-import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.services.sqs.model.SqsException;
 
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
+/**
+ * Creates a task (POST /tasks). The assignment email and the queue message are written to the
+ * outbox with the task and delivered by the outbox relay, so the response does not wait on SNS
+ * or SQS. Retries that send the same Idempotency-Key get the first response back instead of
+ * creating the task again.
+ */
 public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(CreateTaskHandler.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private final DynamoDBMapper dynamoDBMapper;
-    private final SqsClient sqsClient;
+    private final InitTimer initTimer = InitTimer.start(CreateTaskHandler.class);
+    private final TaskRepository taskRepository;
+    private final AssigneeLookupService assigneeLookupService;
+    private final IdempotencyService idempotencyService;
     private final String tasksQueueUrl;
-    private final CognitoIdentityProviderClient cognitoClient;
-    private final String userPoolId;
     private final String taskAssignmentTopic;
-    private final SnsClient snsClient;
 
     public CreateTaskHandler() {
-        AmazonDynamoDB dynamoDBClient = DynamoDBUtil.getDynamoDBClient();
-
-        // Get table name from environment variable
-        String tableName = System.getenv("TASK_TABLE");
-        if (tableName != null && !tableName.isEmpty()) {
-
-            // Create a config that overrides the table name
-            DynamoDBMapperConfig mapperConfig = DynamoDBMapperConfig.builder()
-                    .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName))
-                    .build();
-            this.dynamoDBMapper = new DynamoDBMapper(dynamoDBClient, mapperConfig);
-        } else {
-            // Fallback to default table name in the class annotation
-            this.dynamoDBMapper = new DynamoDBMapper(dynamoDBClient);
-        }
-
-        // Create a shared HTTP client
-//        UrlConnectionHttpClient httpClient = (UrlConnectionHttpClient) UrlConnectionHttpClient.builder().build();
-
-        // Set region from environment variables
-        String regionStr = System.getenv("REGION");
-        Region region = regionStr != null ? Region.of(regionStr) : Region.EU_CENTRAL_1; // Default to EU Central 1
-
-        this.sqsClient = SqsClient.create();
+        // Table names come from TASK_TABLE and USER_TABLE
+        this.taskRepository = new TaskRepository();
+        this.assigneeLookupService = new AssigneeLookupService(new UserRepository());
+        this.idempotencyService = new IdempotencyService();
 
         this.tasksQueueUrl = System.getenv("TASKS_QUEUE_URL");
-        this.userPoolId = System.getenv("USER_POOL_ID");
         this.taskAssignmentTopic = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
-        this.snsClient = SnsClient.create();
-        this.cognitoClient = CognitoIdentityProviderClient.builder()
-                .region(region)
-                .build();
+        initTimer.stop();
     }
 
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        initTimer.report(context);
+        return idempotencyService.execute(input, context, () -> createTask(input, context));
+    }
+
+    private APIGatewayProxyResponseEvent createTask(APIGatewayProxyRequestEvent input, Context context) {
         context.getLogger().log("Received request to create task " + input.getBody());
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(createCorsHeaders());
@@ -126,40 +106,25 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
             }
 
             // Verify assigned user exists
+            String assignedUserId = null;
             if (taskRequest.getAssignedUserEmail() != null && !taskRequest.getAssignedUserEmail().isEmpty()) {
                 context.getLogger().log("Verifying assigned user exists: " + taskRequest.getAssignedUserEmail());
-                if (!userExistsInCognito(taskRequest.getAssignedUserEmail(),context)) {
+                AssigneeLookupService.Assignee assignee =
+                        assigneeLookupService.resolve(taskRequest.getAssignedUserEmail(), context);
+                if (assignee == null) {
                     return createErrorResponse(response, 400, "The assigned user does not exist.");
                 }
+                assignedUserId = assignee.userId();
             }
 
-            // Create and save task
+            // Create and save task together with its notifications
             Tasks task = createTaskFromRequest(taskRequest, createdBy);
-            dynamoDBMapper.save(task);
-            context.getLogger().log("Task saved successfully to the table with ID: " + task.getTaskId());
-
-            // Publish email with useremail message attribute for filtering
-            String emailMessage = String.format("You have been assigned to task %s", task.getName());
-            try {
-                Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-                messageAttributes.put("userId", MessageAttributeValue.builder()
-                        .dataType("String")
-                        .stringValue(taskRequest.getAssignedUserEmail())
-                        .build());
-
-                PublishRequest publishRequest = PublishRequest.builder()
-                        .message(emailMessage)
-                        .topicArn(taskAssignmentTopic)
-                        .messageAttributes(messageAttributes)
-                        .build();
-
-                PublishResponse publishResponse = snsClient.publish(publishRequest);
-            } catch (SnsException e) {
-                context.getLogger().log("SNS publish failed: " + e.awsErrorDetails().errorMessage());
+            task.setAssignedUserId(assignedUserId);
+            if (assignedUserId == null) {
+                context.getLogger().log("No userId for " + taskRequest.getAssignedUserEmail() + ", skipping assignment email");
             }
-
-            // Send task to SQS for notification processing
-             sendTaskToQueue(task, context);
+            taskRepository.save(task, this::taskEvents);
+            context.getLogger().log("Task saved successfully to the table with ID: " + task.getTaskId());
 
             // Return success response with the created task
             return createSuccessResponse(response, task);
@@ -167,36 +132,22 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
         } catch (JsonProcessingException e) {
             logger.error("Error parsing request body", e);
             return createErrorResponse(response, 400, "Invalid request format: " + e.getMessage());
+        } catch (UserLookupException e) {
+            logger.error("Could not verify the assigned user", e);
+            return createErrorResponse(response, 503, "The assigned user could not be looked up, please retry");
         } catch (Exception e) {
             logger.error("Error processing task creation", e);
             return createErrorResponse(response, 500, "Error creating task: " + e.getMessage());
         }
     }
 
-    private boolean userExistsInCognito(String email, Context context){
-        try{
-            ListUsersRequest request = ListUsersRequest.builder()
-                    .userPoolId(userPoolId)
-                    .filter("email = \"" + email + "\"")
-                    .limit(1)  // We only need to know if at least one exists
-                    .build();
-
-            context.getLogger().log("User pool ID: " + userPoolId);
-            ListUsersResponse response = cognitoClient.listUsers(request);
-            boolean exists = !response.users().isEmpty();
-            return exists;
-        } catch (Exception e){
-            // In case of error, log it but assume user doesn't exist for safety
-            return false;
-        }
-    }
-
-    private Tasks createTaskFromRequest(TaskRequest request, String createdBy) {
+    static Tasks createTaskFromRequest(TaskRequest request, String createdBy) {
         Tasks task = new Tasks();
         task.setName(request.getName());
         task.setDescription(request.getDescription());
-        task.setStatus("OPEN"); // Default status for new tasks
+        task.setStatus("open"); // Default status for new tasks
         task.setDeadline(request.getDeadline());
+        task.setOpenDeadlineBucket(DeadlineBucketUtil.bucketFor(task.getStatus(), task.getDeadline()));
         task.setResponsibility(request.getResponsibility());
         task.setAssignedUserEmail(request.getAssignedUserEmail());
         task.setCreatedBy(createdBy);
@@ -205,49 +156,25 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
         return task;
     }
 
-    // Update the method signature to accept the context
-    private void sendTaskToQueue(Tasks task, Context context) {
-        try {
-            // Log request ID from context for traceability
-            String requestId = context.getAwsRequestId();
-
-            if (tasksQueueUrl == null || tasksQueueUrl.isEmpty()) {
-                return;
-            }
-
-            String messageBody = objectMapper.writeValueAsString(task);
-            context.getLogger().log ("[RequestID: {}] Task serialized to JSON successfully " + requestId + " messageBody " + messageBody);
-
-            String messageGroupId = "TaskGroupAssignment"; // Group by responsibility
-            String messageDeduplicationId = UUID.randomUUID().toString(); // Use taskId for deduplication
-
-            context.getLogger().log ("Preparing to send message with groupId: " + messageGroupId + " deduplicationId: " + messageDeduplicationId);
-
-
-            SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-                    .queueUrl(tasksQueueUrl)
-                    .messageBody(messageBody)
-                    .messageGroupId(messageGroupId)
-                    .messageDeduplicationId(messageDeduplicationId)
-                    .build();
-            // Send the message and capture the response
-            var sendMessageResponse = sqsClient.sendMessage(sendMessageRequest);
-            context.getLogger().log("SQS Response: " + sendMessageResponse.toString());
-
-            // Log successful send with message ID
-            context.getLogger().log("[RequestID: {}] " + requestId + " Task sent to queue successfully. Message ID: " +
-                     sendMessageResponse.messageId());
-
-        } catch (Exception e) {
-            // More detailed error logging
-            String requestId = context.getAwsRequestId();
-            // If it's an AWS service exception, log additional details
-            if (e instanceof SqsException) {
-                SqsException sqsEx =
-                        (SqsException) e;
-                context.getLogger().log("[RequestID: {}] " + requestId + " SQS Error details - Status code: " + sqsEx.statusCode() + " Request ID: " + sqsEx.requestId());
+    /**
+     * The assignment email (with a userId attribute for the subscription filter) and the task
+     * message for the tasks queue.
+     */
+    private List<OutboxEvent> taskEvents(Tasks task) {
+        List<OutboxEvent> events = new ArrayList<>();
+        if (task.getAssignedUserId() != null) {
+            String emailMessage = String.format("You have been assigned to task %s", task.getName());
+            events.add(OutboxEvent.sns(taskAssignmentTopic, null, emailMessage,
+                    Map.of("userId", task.getAssignedUserId())));
+        }
+        if (tasksQueueUrl != null && !tasksQueueUrl.isEmpty()) {
+            try {
+                events.add(OutboxEvent.sqs(tasksQueueUrl, objectMapper.writeValueAsString(task), "TaskGroupAssignment"));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
             }
         }
+        return events;
     }
 
     private Map<String, String> getClaims(APIGatewayProxyRequestEvent input) {
@@ -269,7 +196,7 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
         return claims;
     }
 
-    private boolean isValidTask(TaskRequest task) {
+    static boolean isValidTask(TaskRequest task) {
         return task.getName() != null && !task.getName().isEmpty() &&
                 task.getResponsibility() != null && !task.getResponsibility().isEmpty();
     }
@@ -300,7 +227,7 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
     private Map<String, String> createCorsHeaders() {
         Map<String, String> headers = new HashMap<>();
         headers.put("Access-Control-Allow-Origin", "*");
-        headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key");
+        headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key,Idempotency-Key");
         headers.put("Access-Control-Allow-Methods", "OPTIONS,POST");
         headers.put("Content-Type", "application/json");
         return headers;
@@ -0,0 +1,252 @@
+package com.taskmanagementsystem.tasks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.AssigneeLookupService;
+import com.taskmanagementsystem.services.IdempotencyService;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.SnsBatchPublisher;
+import com.taskmanagementsystem.util.SqsBatchSender;
+
+import software.amazon.awssdk.http.HttpStatusCode;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates many tasks in one request (POST /tasks/batch).
+ *
+ * Does the same work as {@link CreateTaskHandler} for every task, but in bulk: each distinct
+ * assignee is looked up once, tasks are written 25 at a time with BatchWriteItem, and the
+ * assignment emails and queue messages go out with PublishBatch and SendMessageBatch. Tasks
+ * that fail validation or cannot be written are reported per item and do not stop the rest.
+ * Every request creates new tasks, so clients that retry should send an Idempotency-Key: a
+ * retry with the same key gets the first response back instead of creating the tasks again.
+ */
+public class CreateTasksBatchHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final InitTimer initTimer = InitTimer.start(CreateTasksBatchHandler.class);
+
+    private final TaskRepository taskRepository;
+    private final AssigneeLookupService assigneeLookupService;
+    private final IdempotencyService idempotencyService;
+    private final SnsClient snsClient;
+    private final SqsClient sqsClient;
+    private final String taskAssignmentTopic;
+    private final String tasksQueueUrl;
+    private final int maxBatchSize;
+
+    public CreateTasksBatchHandler() {
+        this.taskRepository = new TaskRepository();
+        this.assigneeLookupService = new AssigneeLookupService(new UserRepository());
+        this.idempotencyService = new IdempotencyService();
+        this.snsClient = AwsClients.sns();
+        this.sqsClient = AwsClients.sqs();
+        this.taskAssignmentTopic = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
+        this.tasksQueueUrl = System.getenv("TASKS_QUEUE_URL");
+        String maxBatchSize = System.getenv("MAX_BATCH_TASKS");
+        this.maxBatchSize = maxBatchSize == null || maxBatchSize.isEmpty()
+                ? DEFAULT_MAX_BATCH_SIZE
+                : Integer.parseInt(maxBatchSize);
+        initTimer.stop();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        initTimer.report(context);
+        return idempotencyService.execute(input, context, () -> createBatch(input, context));
+    }
+
+    private APIGatewayProxyResponseEvent createBatch(APIGatewayProxyRequestEvent input, Context context) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setHeaders(HeadersUtil.getHeaders());
+
+        try {
+            Map<String, Object> authorizer = input.getRequestContext() != null
+                    ? input.getRequestContext().getAuthorizer()
+                    : null;
+            if (authorizer == null || !authorizer.containsKey("claims")) {
+                return response
+                        .withStatusCode(HttpStatusCode.UNAUTHORIZED)
+                        .withBody("{\"message\": \"Unauthorized: Authentication required\"}");
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
+            String createdBy = claims.get("email");
+            if (createdBy == null || createdBy.isEmpty()) {
+                createdBy = claims.get("cognito:username");
+            }
+            if (createdBy == null || createdBy.isEmpty()) {
+                return response
+                        .withStatusCode(HttpStatusCode.FORBIDDEN)
+                        .withBody("{\"message\": \"Unauthorized: User information not found\"}");
+            }
+            if (!"admin".equalsIgnoreCase(claims.get("custom:role"))) {
+                return response
+                        .withStatusCode(HttpStatusCode.FORBIDDEN)
+                        .withBody("{\"message\": \"Unauthorized: Only admin users can create tasks\"}");
+            }
+
+            BatchTaskRequest batchRequest;
+            try {
+                batchRequest = objectMapper.readValue(input.getBody(), BatchTaskRequest.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                return response
+                        .withStatusCode(HttpStatusCode.BAD_REQUEST)
+                        .withBody("{\"message\": \"Invalid request format\"}");
+            }
+            List<TaskRequest> requests = batchRequest == null ? null : batchRequest.tasks();
+            if (requests == null || requests.isEmpty()) {
+                return response
+                        .withStatusCode(HttpStatusCode.BAD_REQUEST)
+                        .withBody("{\"message\": \"tasks must be a non-empty list\"}");
+            }
+            if (requests.size() > maxBatchSize) {
+                return response
+                        .withStatusCode(HttpStatusCode.BAD_REQUEST)
+                        .withBody("{\"message\": \"At most " + maxBatchSize + " tasks can be created per request\"}");
+            }
+
+            TaskResult[] results = createTasks(requests, createdBy, context);
+
+            int created = 0;
+            for (TaskResult result : results) {
+                if (TaskResult.CREATED.equals(result.status())) {
+                    created++;
+                }
+            }
+            context.getLogger().log("Batch create: " + created + " of " + requests.size() + " tasks created");
+
+            // 207 tells the caller to look at the individual results
+            int statusCode = created == requests.size() ? HttpStatusCode.CREATED : 207;
+            return response
+                    .withStatusCode(statusCode)
+                    .withBody(objectMapper.writeValueAsString(Map.of(
+                            "created", created,
+                            "failed", requests.size() - created,
+                            "results", results
+                    )));
+
+        } catch (Exception e) {
+            context.getLogger().log("Error creating tasks: " + e.getMessage());
+            return response
+                    .withStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR)
+                    .withBody("{\"message\": \"Error creating tasks\"}");
+        }
+    }
+
+    /**
+     * Validates, writes and announces the tasks.
+     *
+     * @return one result per request, in request order
+     */
+    private TaskResult[] createTasks(List<TaskRequest> requests, String createdBy, Context context) {
+        TaskResult[] results = new TaskResult[requests.size()];
+
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TaskRequest request = requests.get(i);
+            if (request == null || !CreateTaskHandler.isValidTask(request)) {
+                results[i] = TaskResult.failed(i, "Invalid task data. Name and responsibility are required.");
+            } else if (request.getAssignedUserEmail() != null && !request.getAssignedUserEmail().isEmpty()) {
+                emails.add(request.getAssignedUserEmail());
+            }
+        }
+
+        AssigneeLookupService.Assignees assignees = assigneeLookupService.resolveAll(emails, context);
+
+        List<Tasks> tasks = new ArrayList<>();
+        List<Integer> taskIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TaskRequest request = requests.get(i);
+            String email = request.getAssignedUserEmail();
+            AssigneeLookupService.Assignee assignee = null;
+            if (email != null && !email.isEmpty()) {
+                if (assignees.failed().contains(email)) {
+                    results[i] = TaskResult.failed(i, "The assigned user could not be looked up, please retry");
+                    continue;
+                }
+                assignee = assignees.found().get(email);
+                if (assignee == null) {
+                    results[i] = TaskResult.failed(i, "The assigned user does not exist.");
+                    continue;
+                }
+            }
+
+            Tasks task = CreateTaskHandler.createTaskFromRequest(request, createdBy);
+            task.setAssignedUserId(assignee != null ? assignee.userId() : null);
+            tasks.add(task);
+            taskIndexes.add(i);
+        }
+
+        if (tasks.isEmpty()) {
+            return results;
+        }
+
+        Set<String> unwritten = taskRepository.saveAll(tasks);
+
+        SnsBatchPublisher notifications = new SnsBatchPublisher(snsClient);
+        SqsBatchSender outbound = new SqsBatchSender(sqsClient);
+        for (int t = 0; t < tasks.size(); t++) {
+            Tasks task = tasks.get(t);
+            int index = taskIndexes.get(t);
+            if (unwritten.contains(task.getTaskId())) {
+                results[index] = TaskResult.failed(index, "Task could not be saved, please retry");
+                continue;
+            }
+            results[index] = new TaskResult(index, task.getTaskId(), TaskResult.CREATED, null);
+
+            if (task.getAssignedUserId() != null) {
+                notifications.add(taskAssignmentTopic, null,
+                        String.format("You have been assigned to task %s", task.getName()),
+                        Map.of("userId", task.getAssignedUserId()));
+            }
+            if (tasksQueueUrl != null && !tasksQueueUrl.isEmpty()) {
+                try {
+                    // Dedupes resends of this message only; a retried request has new taskIds
+                    outbound.add(tasksQueueUrl, objectMapper.writeValueAsString(task), "TaskGroupAssignment", task.getTaskId());
+                } catch (JsonProcessingException e) {
+                    context.getLogger().log("Error serializing task " + task.getTaskId() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        // Notifications are best effort, as for a single task: a failed send does not undo the write
+        notifications.flush(context);
+        outbound.flush(context);
+        return results;
+    }
+
+    public record BatchTaskRequest(List<TaskRequest> tasks) {}
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record TaskResult(int index, String taskId, String status, String message) {
+
+        static final String CREATED = "created";
+        static final String FAILED = "failed";
+
+        static TaskResult failed(int index, String message) {
+            return new TaskResult(index, null, FAILED, message);
+        }
+    }
+}
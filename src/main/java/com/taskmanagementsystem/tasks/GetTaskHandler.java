@@ -7,22 +7,31 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.entities.Tasks;
 import com.taskmanagementsystem.services.TaskService;
+import com.taskmanagementsystem.util.ETagUtil;
 import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.TaskFields;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class GetTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(GetTaskHandler.class);
 
     private final TaskService taskService;
     private final ObjectMapper objectMapper;
 
     public GetTaskHandler() {
         this.taskService = new TaskService();
-        this.objectMapper = new ObjectMapper();
+        this.objectMapper = TaskFields.objectMapper();
+        initTimer.stop();
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        initTimer.report(context);
 
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
@@ -55,8 +64,27 @@ public class GetTaskHandler implements RequestHandler<APIGatewayProxyRequestEven
                 return response;
             }
 
+            Set<String> fields;
+            try {
+                fields = TaskFields.parse(event.getQueryStringParameters() != null
+                        ? event.getQueryStringParameters().get("fields")
+                        : null);
+            } catch (IllegalArgumentException e) {
+                response.setStatusCode(400);
+                response.setBody(objectMapper.writeValueAsString(Map.of("message", e.getMessage())));
+                return response;
+            }
+
+            // The assignee is always read for the access check below, and the version for the ETag
+            Set<String> attributes = null;
+            if (fields != null) {
+                attributes = new LinkedHashSet<>(fields);
+                attributes.add("assignedUserEmail");
+                attributes.addAll(ETagUtil.REQUIRED_ATTRIBUTES);
+            }
+
             // Retrieve the task from DynamoDB
-            Tasks task = taskService.getTask(taskId);
+            Tasks task = taskService.getTask(taskId, attributes);
             if (task == null) {
                 response.setStatusCode(404);
                 response.setBody("{\"message\": \"Task not found\"}");
@@ -73,11 +101,20 @@ public class GetTaskHandler implements RequestHandler<APIGatewayProxyRequestEven
                 return response;
             }
 
+            // An unchanged task is answered without serializing it again
+            String etag = ETagUtil.forTasks(List.of(task), null, fields);
+            response.setHeaders(HeadersUtil.getConditionalHeaders(etag));
+            if (ETagUtil.matches(event.getHeaders(), etag)) {
+                response.setStatusCode(304);
+                return response;
+            }
+
             // Serialize the task to JSON and return it
             response.setStatusCode(200);
-            response.setBody(objectMapper.writeValueAsString(task));
+            response.setBody(TaskFields.writer(objectMapper, fields).writeValueAsString(task));
         } catch (Exception e) {
             context.getLogger().log("Error: " + e.getMessage());
+            response.setHeaders(HeadersUtil.getHeaders());
             response.setStatusCode(500);
             response.setBody("{\"message\": \"Internal server error\"}");
         }
@@ -0,0 +1,96 @@
+package com.taskmanagementsystem.tasks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.repository.TaskSummaryRepository;
+import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Returns task counts per status (GET /tasks/summary) with a single read of the TaskSummary
+ * table: a GetItem per user, or one BatchGetItem of the global shards. Admins get the counts for all tasks, or for one user with ?assignee=email; other users
+ * get the counts of the tasks assigned to them.
+ */
+public class GetTaskSummaryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(GetTaskSummaryHandler.class);
+
+    private final TaskSummaryRepository summaryRepository;
+    private final ObjectMapper objectMapper;
+
+    public GetTaskSummaryHandler() {
+        this.summaryRepository = new TaskSummaryRepository();
+        this.objectMapper = new ObjectMapper();
+        initTimer.stop();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        initTimer.report(context);
+
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setHeaders(HeadersUtil.getHeaders());
+
+        try {
+            Map<String, Object> authorizer = event.getRequestContext().getAuthorizer();
+            if (authorizer == null || !authorizer.containsKey("claims")) {
+                response.setStatusCode(401);
+                response.setBody("{\"message\": \"Authorizer claims not found\"}");
+                return response;
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
+            String userEmail = claims.get("email");
+            boolean isAdmin = "admin".equals(claims.get("custom:role"));
+
+            if (userEmail == null) {
+                response.setStatusCode(401);
+                response.setBody("{\"message\": \"User email not found in claims\"}");
+                return response;
+            }
+
+            String assignee = event.getQueryStringParameters() != null
+                    ? event.getQueryStringParameters().get("assignee")
+                    : null;
+            if (!isAdmin) {
+                if (assignee != null && !assignee.equals(userEmail)) {
+                    response.setStatusCode(403);
+                    response.setBody("{\"message\": \"Forbidden: You can only view your own summary\"}");
+                    return response;
+                }
+                assignee = userEmail;
+            }
+
+            String summaryId = assignee == null || assignee.isEmpty()
+                    ? TaskSummaryRepository.GLOBAL
+                    : TaskSummaryRepository.userSummaryId(assignee);
+            Map<String, Long> counts = summaryRepository.getCounts(summaryId);
+
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("assignee", assignee == null || assignee.isEmpty() ? null : assignee);
+            body.put("counts", counts);
+            body.put("total", total);
+
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writeValueAsString(body));
+            return response;
+
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving task summary: " + e.getMessage());
+            response.setStatusCode(500);
+            response.setBody("{\"message\": \"Internal server error\"}");
+            return response;
+        }
+    }
+}
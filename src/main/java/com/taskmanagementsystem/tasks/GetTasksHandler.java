@@ -1,50 +1,51 @@
 package com.taskmanagementsystem.tasks;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.entities.Tasks;
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.util.ETagUtil;
 import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.PageTokenUtil;
+import com.taskmanagementsystem.util.TaskFields;
+
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The type Get tasks handler.
  */
 public class GetTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDBMapper dynamoDBMapper;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private final InitTimer initTimer = InitTimer.start(GetTasksHandler.class);
+
+    private final TaskRepository taskRepository;
     private final ObjectMapper objectMapper;
 
     /**
      * Instantiates a new Get tasks handler.
      */
     public GetTasksHandler() {
-        AmazonDynamoDB dynamoDBClient = DynamoDBUtil.getDynamoDBClient();
-        String taskTableName = System.getenv("TASK_TABLE");
-        if (taskTableName == null || taskTableName.isEmpty()) {
-            throw new IllegalStateException("TASK_TABLE environment variable is not set");
-        }
-        DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
-                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(taskTableName))
-                .build();
-        this.dynamoDBMapper = new DynamoDBMapper(dynamoDBClient, config);
-        this.objectMapper = new ObjectMapper();
+        this.taskRepository = new TaskRepository();
+        this.objectMapper = TaskFields.objectMapper();
+        initTimer.stop();
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        initTimer.report(context);
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -78,43 +79,83 @@ public class GetTasksHandler implements RequestHandler<APIGatewayProxyRequestEve
             context.getLogger().log("User email: " + userEmail);
             context.getLogger().log("User role: " + userRole);
 
+            Map<String, String> queryParams = requestEvent.getQueryStringParameters() != null
+                    ? requestEvent.getQueryStringParameters()
+                    : Map.of();
+
+            int limit;
+            Map<String, AttributeValue> exclusiveStartKey;
+            Set<String> fields;
+            try {
+                limit = PageTokenUtil.parseLimit(queryParams.get("limit"), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+                exclusiveStartKey = PageTokenUtil.decode(queryParams.get("nextToken"));
+                fields = TaskFields.parse(queryParams.get("fields"));
+            } catch (IllegalArgumentException e) {
+                response.setStatusCode(400);
+                response.setBody(objectMapper.writeValueAsString(Map.of(
+                        "statusCode", 400,
+                        "message", e.getMessage()
+                )));
+                return response;
+            }
+
+            // The ETag is computed from each task's version, so it is read even when not requested
+            Set<String> attributes = null;
+            if (fields != null) {
+                attributes = new LinkedHashSet<>(fields);
+                attributes.addAll(ETagUtil.REQUIRED_ATTRIBUTES);
+            }
+
             List<Tasks> tasks;
-            
+            Map<String, AttributeValue> lastEvaluatedKey;
 
             if (isAdmin) {
 
-                tasks = dynamoDBMapper.scan(Tasks.class, new DynamoDBScanExpression());
-                context.getLogger().log("Admin user - fetched all tasks: " + tasks.size());
+                Page<Tasks> page = taskRepository.scanPage(limit, exclusiveStartKey, attributes);
+                tasks = page.items();
+                lastEvaluatedKey = page.lastEvaluatedKey();
+                context.getLogger().log("Admin user - fetched page of tasks: " + tasks.size());
             } else {
 
-                Map<String, AttributeValue> eav = new HashMap<>();
-                eav.put(":email", new AttributeValue().withS(userEmail));
-                
-                DynamoDBQueryExpression<Tasks> taskQuery = new DynamoDBQueryExpression<Tasks>()
-                        .withIndexName("AssigneeIndex")
-                        .withConsistentRead(false)
-                        .withKeyConditionExpression("assignedUserEmail = :email")
-                        .withExpressionAttributeValues(eav);
-
+                // Only a token minted for this user's partition of the AssigneeIndex may continue it
+                if (!PageTokenUtil.isForPartition(exclusiveStartKey, "assignedUserEmail", userEmail)) {
+                    response.setStatusCode(400);
+                    response.setBody("{\"statusCode\": 400, \"message\": \"Invalid nextToken\"}");
+                    return response;
+                }
 
                 context.getLogger().log("Query params: assignedUserEmail = " + userEmail);
                 
-                tasks = dynamoDBMapper.query(Tasks.class, taskQuery);
+                Page<Tasks> page = taskRepository.queryByAssigneePage(userEmail, limit, exclusiveStartKey, attributes);
+                tasks = page.items();
+                lastEvaluatedKey = page.lastEvaluatedKey();
                 context.getLogger().log("Regular user - tasks found: " + tasks.size());
             }
 
+            String nextToken = PageTokenUtil.encode(lastEvaluatedKey);
+
+            // An unchanged page is answered without serializing it again
+            String etag = ETagUtil.forTasks(tasks, nextToken, fields);
+            response.setHeaders(HeadersUtil.getConditionalHeaders(etag));
+            if (ETagUtil.matches(requestEvent.getHeaders(), etag)) {
+                response.setStatusCode(304);
+                return response;
+            }
+
             Map<String, Object> responseBody = new HashMap<>();
             responseBody.put("statusCode", 200);
             responseBody.put("message", tasks.isEmpty() ? "No tasks assigned" : "Tasks retrieved successfully");
             responseBody.put("data", tasks);
+            responseBody.put("nextToken", nextToken);
 
             response.setStatusCode(200);
-            response.setBody(objectMapper.writeValueAsString(responseBody));
+            response.setBody(TaskFields.writer(objectMapper, fields).writeValueAsString(responseBody));
             return response;
 
         } catch (Exception e) {
             context.getLogger().log("Error retrieving tasks: " + e.getMessage());
             e.printStackTrace();
+            response.setHeaders(HeadersUtil.getHeaders());
             response.setStatusCode(500);
             try {
                 response.setBody(objectMapper.writeValueAsString(Map.of(
@@ -0,0 +1,220 @@
+package com.taskmanagementsystem.tasks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.util.HeadersUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.JsonStringEscapingWriter;
+import com.taskmanagementsystem.util.PageTokenUtil;
+import com.taskmanagementsystem.util.TaskFields;
+
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming variant of {@link GetTasksHandler}.
+ *
+ * Tasks are written to the output stream with a JsonGenerator as each DynamoDB page arrives,
+ * so memory use stays at one page no matter how many tasks are returned. The response has the
+ * same shape as GET /tasks, with larger pages allowed. Admins stream the whole table, other
+ * users stream the tasks assigned to them.
+ *
+ * Streaming only keeps the response off the heap; it does not make it any smaller. Lambda
+ * still rejects responses over 6 MB, and by then the 200 envelope has been written, so API
+ * Gateway returns a 502 instead of an error the client can act on. A page therefore also ends
+ * once STREAM_MAX_RESPONSE_BYTES (5 MB by default) have been written, with a nextToken for the
+ * rest. Pages end on DynamoDB page boundaries, and reads are sized from the average task seen
+ * so far, so the budget can be overshot by roughly one read.
+ */
+public class GetTasksStreamHandler implements RequestStreamHandler {
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Items requested from DynamoDB per round trip
+    private static final int READ_PAGE_SIZE = 100;
+    private static final long DEFAULT_MAX_RESPONSE_BYTES = 5L * 1024 * 1024;
+    private final InitTimer initTimer = InitTimer.start(GetTasksStreamHandler.class);
+
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+    private final long maxResponseBytes;
+
+    public GetTasksStreamHandler() {
+        this.taskRepository = new TaskRepository();
+        this.objectMapper = TaskFields.objectMapper();
+        this.maxResponseBytes = readMaxResponseBytes();
+        initTimer.stop();
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        initTimer.report(context);
+        JsonNode requestEvent = objectMapper.readTree(input);
+
+        JsonNode claims = requestEvent.path("requestContext").path("authorizer").path("claims");
+        if (!claims.isObject()) {
+            writeResponse(output, 401, "{\"message\": \"Unauthorized: No claims found in authorizer\"}");
+            return;
+        }
+
+        String userEmail = claims.path("email").asText(null);
+        String userRole = claims.path("custom:role").asText(null);
+        boolean isAdmin = "admin".equals(userRole);
+
+        if (userEmail == null || userEmail.isEmpty()) {
+            writeResponse(output, 401, "{\"message\": \"Unauthorized: Email not found in token\"}");
+            return;
+        }
+
+        JsonNode queryParams = requestEvent.path("queryStringParameters");
+
+        int limit;
+        Map<String, AttributeValue> exclusiveStartKey;
+        Set<String> fields;
+        try {
+            limit = PageTokenUtil.parseLimit(queryParams.path("limit").asText(null), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+            exclusiveStartKey = PageTokenUtil.decode(queryParams.path("nextToken").asText(null));
+            fields = TaskFields.parse(queryParams.path("fields").asText(null));
+        } catch (IllegalArgumentException e) {
+            writeResponse(output, 400, objectMapper.writeValueAsString(Map.of(
+                    "statusCode", 400,
+                    "message", e.getMessage()
+            )));
+            return;
+        }
+
+        // Only a token minted for this user's partition of the AssigneeIndex may continue it
+        if (!isAdmin && !PageTokenUtil.isForPartition(exclusiveStartKey, "assignedUserEmail", userEmail)) {
+            writeResponse(output, 400, "{\"statusCode\": 400, \"message\": \"Invalid nextToken\"}");
+            return;
+        }
+
+        // Read the first page before anything is written, so a failure can still become a 500 response
+        Page<Tasks> page;
+        try {
+            page = readPage(isAdmin, userEmail, Math.min(limit, READ_PAGE_SIZE), exclusiveStartKey, fields);
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving tasks: " + e.getMessage());
+            writeResponse(output, 500, "{\"statusCode\": 500, \"message\": \"Internal server error\"}");
+            return;
+        }
+
+        CountingOutputStream counted = new CountingOutputStream(output);
+        long written = streamTasks(counted, page, isAdmin, userEmail, limit, fields);
+        context.getLogger().log((isAdmin ? "Admin" : "Regular") + " user - streamed tasks: " + written
+                + ", bytes: " + counted.count);
+    }
+
+    private long streamTasks(CountingOutputStream output, Page<Tasks> firstPage, boolean isAdmin, String userEmail,
+                             int limit, Set<String> fields) throws IOException {
+        // Flushing is done once per page below rather than after every task
+        ObjectWriter taskWriter = TaskFields.writer(objectMapper, fields)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write("{\"statusCode\": 200, \"headers\": ");
+        writer.write(objectMapper.writeValueAsString(HeadersUtil.getHeaders()));
+        writer.write(", \"body\": \"");
+
+        // The proxy integration expects the body as a string, so the body document is escaped as it is written
+        long written = 0;
+        Page<Tasks> page = firstPage;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(new JsonStringEscapingWriter(writer))) {
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", 200);
+            generator.writeArrayFieldStart("data");
+            generator.flush();
+            long startBytes = output.count;
+            while (true) {
+                for (Tasks task : page.items()) {
+                    taskWriter.writeValue(generator, task);
+                }
+                written += page.items().size();
+                // Flushes through to the output, so output.count is exact after this
+                generator.flush();
+
+                long remainingBytes = maxResponseBytes - output.count;
+                if (page.lastEvaluatedKey() == null || written >= limit || remainingBytes <= 0) {
+                    break;
+                }
+                // Each read asks for at most what is left of the limit and, judging by the tasks
+                // written so far, of the byte budget
+                long bytesPerTask = written == 0 ? 0 : Math.max(1, (output.count - startBytes) / written);
+                long pageSize = Math.min(limit - written, READ_PAGE_SIZE);
+                if (bytesPerTask > 0) {
+                    pageSize = Math.max(1, Math.min(pageSize, remainingBytes / bytesPerTask));
+                }
+                page = readPage(isAdmin, userEmail, (int) pageSize, page.lastEvaluatedKey(), fields);
+            }
+            generator.writeEndArray();
+            generator.writeStringField("message", written == 0 ? "No tasks assigned" : "Tasks retrieved successfully");
+            generator.writeStringField("nextToken", PageTokenUtil.encode(page.lastEvaluatedKey()));
+            generator.writeEndObject();
+        }
+
+        writer.write("\"}");
+        writer.flush();
+        return written;
+    }
+
+    private Page<Tasks> readPage(boolean isAdmin, String userEmail, int pageSize,
+                                 Map<String, AttributeValue> exclusiveStartKey, Set<String> fields) {
+        return isAdmin
+                ? taskRepository.scanPage(pageSize, exclusiveStartKey, fields)
+                : taskRepository.queryByAssigneePage(userEmail, pageSize, exclusiveStartKey, fields);
+    }
+
+    private static long readMaxResponseBytes() {
+        String value = System.getenv("STREAM_MAX_RESPONSE_BYTES");
+        return value == null || value.isEmpty() ? DEFAULT_MAX_RESPONSE_BYTES : Long.parseLong(value);
+    }
+
+    private void writeResponse(OutputStream output, int statusCode, String body) throws IOException {
+        objectMapper.writeValue(output, Map.of(
+                "statusCode", statusCode,
+                "headers", HeadersUtil.getHeaders(),
+                "body", body
+        ));
+    }
+
+    /**
+     * Counts the bytes written to the response so far.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
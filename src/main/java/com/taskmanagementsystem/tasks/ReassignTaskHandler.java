@@ -1,52 +1,51 @@
 package com.taskmanagementsystem.tasks;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanagementsystem.entities.OutboxEvent;
 import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.UserRepository;
 import com.taskmanagementsystem.services.TaskService;
-import com.taskmanagementsystem.util.DynamoDBUtil;
-import com.taskmanagementsystem.util.SnsPublisher;
+import com.taskmanagementsystem.util.InitTimer;
 // import com.taskmanagementsystem.util.SqsMessenger;
 // import com.taskmanagementsystem.util.TaskAssignmentMessage;
 import com.taskmanagementsystem.util.UserUtils;
 
 
 public class ReassignTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final InitTimer initTimer = InitTimer.start(ReassignTaskHandler.class);
 
-    private final AmazonDynamoDB dynamoDbClient;
-    private final String taskTableName;
-    private final String userTableName;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
     // private final String queueUrl;
     private final ObjectMapper objectMapper;
     private final TaskService taskService;
     private final String taskAssignmentTopic;
-    private final SnsPublisher snsPublisher;
     // private final SqsMessenger sqsMessenger;
 
     public ReassignTaskHandler() {
-        this.dynamoDbClient = DynamoDBUtil.getDynamoDBClient();
-        this.taskTableName = System.getenv("TASK_TABLE");
-        this.userTableName = System.getenv("USER_TABLE");
+        this.taskRepository = new TaskRepository();
+        this.userRepository = new UserRepository();
         // this.queueUrl = System.getenv("TASKS_QUEUE_URL");
         this.objectMapper = new ObjectMapper();
-        this.taskService = new TaskService();
+        this.taskService = new TaskService(taskRepository);
         this.taskAssignmentTopic = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
-        this.snsPublisher = new SnsPublisher();
         // this.sqsMessenger = new SqsMessenger();
+        initTimer.stop();
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        initTimer.report(context);
         try {
             // Get the request body (email of user and the task id)
             String taskId = requestEvent.getPathParameters().get("taskId");
@@ -79,33 +78,18 @@ public class ReassignTaskHandler implements RequestHandler<APIGatewayProxyReques
             }
 
             // Get userId from UserTable using EmailIndex
-            String userId = UserUtils.getUserIdByEmail(dynamoDbClient, userTableName, newAssignedToEmail, context);
+            String userId = UserUtils.getUserIdByEmail(userRepository, newAssignedToEmail, context);
             if (userId == null) {
                 return new APIGatewayProxyResponseEvent()
                         .withStatusCode(400)
                         .withBody("{\"message\": \"User not found for email: " + newAssignedToEmail + "\"}");
             }
 
-            // Reassign the task to new user
-            Map<String, AttributeValue> key = new HashMap<>();
-            key.put("taskId", new AttributeValue(taskId));
-
-            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-            expressionAttributeValues.put(":newAssignedTo", new AttributeValue(newAssignedToEmail));
-            expressionAttributeValues.put(":openStatus", new  AttributeValue("open"));
-
-            UpdateItemRequest updateRequest = new UpdateItemRequest()
-                    .withTableName(taskTableName)
-                    .withKey(key)
-                    .withUpdateExpression("SET assignedUserEmail = :newAssignedTo, #taskStatus = :openStatus")
-                    .withExpressionAttributeValues(expressionAttributeValues)
-                    .withExpressionAttributeNames(Map.of("#taskStatus", "status"));
-
-            dynamoDbClient.updateItem(updateRequest);
-
-            // Publish email with userId message attribute for filtering
+            // Reassign the task to new user; the email (with a userId attribute for filtering)
+            // goes through the outbox in the same transaction
             String emailMessage = String.format("You have been reassigned to task %s", task.getName());
-            snsPublisher.publishTaskAssignment(taskAssignmentTopic, emailMessage, userId, context);
+            taskRepository.reassign(taskId, newAssignedToEmail, userId, task.getDeadline(),
+                    reassigned -> List.of(OutboxEvent.sns(taskAssignmentTopic, null, emailMessage, Map.of("userId", userId))));
 
             // Send message to SQS for notification processing
             // TaskAssignmentMessage message = new TaskAssignmentMessage(taskId, newAssignedToEmail);
@@ -115,6 +99,11 @@ public class ReassignTaskHandler implements RequestHandler<APIGatewayProxyReques
                     .withStatusCode(200)
                     .withBody("{\"message\": \"Task reassigned successfully\"}");
 
+        } catch (UserLookupException e) {
+            context.getLogger().log("Error in ReassignTaskHandler: " + e.getMessage());
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(503)
+                    .withBody("{\"message\": \"The user could not be looked up, please retry\"}");
         } catch (Exception e) {
             context.getLogger().log("Error in ReassignTaskHandler: " + e.getMessage());
             return new APIGatewayProxyResponseEvent()
@@ -0,0 +1,158 @@
+package com.taskmanagementsystem.tasks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskSummaryRepository;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.util.AwsClients;
+import com.taskmanagementsystem.util.DeadlineBucketUtil;
+import com.taskmanagementsystem.util.InitTimer;
+import com.taskmanagementsystem.util.ParallelScanner;
+import com.taskmanagementsystem.util.UserUtils;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * One-off maintenance job that fills in derived attributes on task items written before
+ * those attributes existed. Invoked manually; it is safe to run repeatedly.
+ *
+ * - openDeadlineBucket for open tasks, so they appear in the OpenDeadlineIndex
+ * - assignedUserId, resolved from assignedUserEmail through the Users table
+ * - summaryCounted, adding tasks written before the TaskSummary table to its counts
+ */
+public class TaskBackfillHandler implements RequestHandler<Object, String> {
+    private final InitTimer initTimer = InitTimer.start(TaskBackfillHandler.class);
+
+    private final DynamoDbClient dynamoDB = AwsClients.dynamoDb();
+    private final ParallelScanner parallelScanner = new ParallelScanner(dynamoDB);
+    private final UserRepository userRepository = new UserRepository();
+    private final TaskRepository taskRepository = new TaskRepository();
+    private final TaskSummaryRepository summaryRepository = new TaskSummaryRepository();
+    private final String taskTable = System.getenv("TASK_TABLE");
+
+    public TaskBackfillHandler() {
+        initTimer.stop();
+    }
+
+    @Override
+    public String handleRequest(Object input, Context context) {
+        initTimer.report(context);
+        AtomicLong bucketsUpdated = new AtomicLong();
+        AtomicLong userIdsUpdated = new AtomicLong();
+        AtomicLong tasksCounted = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#s", "status");
+        expressionNames.put("#bucket", DeadlineBucketUtil.ATTRIBUTE);
+        expressionNames.put("#v", "version");
+        expressionNames.put("#counted", TaskSummaryRepository.COUNTED_ATTRIBUTE);
+
+        String filter = "(attribute_exists(deadline) AND attribute_not_exists(#bucket))"
+                + " OR (attribute_exists(assignedUserEmail) AND attribute_not_exists(assignedUserId))";
+        if (summaryRepository.isEnabled()) {
+            filter += " OR attribute_not_exists(#counted)";
+        }
+
+        ScanRequest scanRequest = ScanRequest.builder()
+                .tableName(taskTable)
+                .filterExpression(filter)
+                .projectionExpression("taskId, #s, deadline, #bucket, assignedUserEmail, assignedUserId, #v, #counted")
+                .expressionAttributeNames(expressionNames)
+                .build();
+
+        long scanned = parallelScanner.scan(scanRequest, item -> {
+            String taskId = item.get("taskId").s();
+
+            if (item.containsKey("deadline") && !item.containsKey(DeadlineBucketUtil.ATTRIBUTE)) {
+                String status = item.containsKey("status") ? item.get("status").s() : null;
+                String bucket = DeadlineBucketUtil.bucketFor(status, Long.parseLong(item.get("deadline").n()));
+                if (bucket != null && backfillDeadlineBucket(taskId, status, item.get("deadline"), bucket)) {
+                    bucketsUpdated.incrementAndGet();
+                }
+            }
+
+            if (item.containsKey("assignedUserEmail") && !item.containsKey("assignedUserId")) {
+                String email = item.get("assignedUserEmail").s();
+                // Cached, so each distinct assignee is queried once per container
+                String userId;
+                try {
+                    userId = UserUtils.getUserIdByEmail(userRepository, email, context);
+                } catch (UserLookupException e) {
+                    // Left without a userId for the next run
+                    userId = null;
+                }
+                if (userId != null && backfillAssignedUserId(taskId, email, userId)) {
+                    userIdsUpdated.incrementAndGet();
+                } else {
+                    skipped.incrementAndGet();
+                }
+            }
+
+            // The updates above leave the version alone, so the scanned version still holds
+            if (summaryRepository.isEnabled() && taskRepository.countInSummary(item)) {
+                tasksCounted.incrementAndGet();
+            }
+        });
+
+        String summary = String.format("Backfill finished: scanned=%d deadlineBuckets=%d assignedUserIds=%d counted=%d skipped=%d",
+                scanned, bucketsUpdated.get(), userIdsUpdated.get(), tasksCounted.get(), skipped.get());
+        context.getLogger().log(summary);
+        return summary;
+    }
+
+    private boolean backfillDeadlineBucket(String taskId, String status, AttributeValue deadline, String bucket) {
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#s", "status");
+        expressionNames.put("#bucket", DeadlineBucketUtil.ATTRIBUTE);
+
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":bucket", AttributeValue.builder().s(bucket).build());
+        expressionValues.put(":status", AttributeValue.builder().s(status).build());
+        expressionValues.put(":deadline", deadline);
+
+        // Skip the item if a handler changed status or deadline since it was scanned
+        return conditionalUpdate(taskId, "SET #bucket = :bucket", "#s = :status AND deadline = :deadline",
+                expressionNames, expressionValues);
+    }
+
+    private boolean backfillAssignedUserId(String taskId, String email, String userId) {
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":userId", AttributeValue.builder().s(userId).build());
+        expressionValues.put(":email", AttributeValue.builder().s(email).build());
+
+        // Skip the item if it was reassigned since it was scanned
+        return conditionalUpdate(taskId, "SET assignedUserId = :userId",
+                "assignedUserEmail = :email AND attribute_not_exists(assignedUserId)",
+                null, expressionValues);
+    }
+
+    private boolean conditionalUpdate(String taskId, String updateExpression, String conditionExpression,
+                                      Map<String, String> expressionNames, Map<String, AttributeValue> expressionValues) {
+        UpdateItemRequest updateRequest = UpdateItemRequest.builder()
+                .tableName(taskTable)
+                .key(TaskRepository.key(taskId))
+                .updateExpression(updateExpression)
+                .conditionExpression(conditionExpression)
+                .expressionAttributeNames(expressionNames)
+                .expressionAttributeValues(expressionValues)
+                .build();
+
+        try {
+            dynamoDB.updateItem(updateRequest);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
@@ -1,72 +1,82 @@
 package com.taskmanagementsystem.tasks;
 
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 
-import com.taskmanagementsystem.entities.Users;
-import com.taskmanagementsystem.services.TaskService;
-import com.taskmanagementsystem.util.DynamoDBUtil;
+import com.taskmanagementsystem.entities.OutboxEvent;
+import com.taskmanagementsystem.entities.TaskStatus;
+import com.taskmanagementsystem.exception.TaskUpdateConflictException;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskUpdate;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.util.DeadlineBucketUtil;
 import com.taskmanagementsystem.util.HeadersUtil;
-import com.taskmanagementsystem.util.SnsPublisher;
-import com.taskmanagementsystem.util.TasksMapper;
+import com.taskmanagementsystem.util.InitTimer;
 import com.taskmanagementsystem.util.UserUtils;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanagementsystem.entities.Tasks;
 
 
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
-
-
 
 /**
  * AWS Lambda handler for updating tasks in a task management system.
  * This handler processes API Gateway requests to update task details in a DynamoDB table.
- * It also sends notifications via Amazon SNS when tasks are completed or reassigned.
+ * Notifications for completed or reassigned tasks are written to the outbox in the same
+ * transaction as the update and sent by the outbox relay.
  */
 public class UpdateTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
    private static final Logger logger = LogManager.getLogger(UpdateTaskHandler.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> REASSIGNABLE_STATUSES = Set.of(TaskStatus.CLOSED, TaskStatus.EXPIRED);
+    private static final List<String> COMPARED_ATTRIBUTES = List.of("assignedUserEmail", "deadline", "version");
+    private final InitTimer initTimer = InitTimer.start(UpdateTaskHandler.class);
 
-    private final AmazonDynamoDB dynamoDbClient;
-    private final TaskService taskService;
-    private final SnsClient snsClient;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
     private final String taskAssignmentTopic;
-    private final SnsPublisher snsPublisher;
-    private final String userTableName;
-    private final String taskTableName;
     private final String taskCompleteTopicArn;
 
 
 
     /**
-     * Default constructor initializing AWS SDK clients for DynamoDB and SNS.
+     * Default constructor initializing the task and user repositories.
      */
     public UpdateTaskHandler() {
-        this.taskService = new TaskService();
-        this.dynamoDbClient = DynamoDBUtil.getDynamoDBClient();
-        this.snsClient = SnsClient.builder().build();
+        this.taskRepository = new TaskRepository();
+        this.userRepository = new UserRepository();
         this.taskAssignmentTopic = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
-        this.snsPublisher = new SnsPublisher();
-        this.userTableName = System.getenv("USER_TABLE");
-        this.taskTableName = System.getenv("TASK_TABLE");
         this.taskCompleteTopicArn = System.getenv("TASK_COMPLETE_TOPIC_ARN");
+        initTimer.stop();
+    }
+
+    /**
+     * Constructor for tests, taking the repositories and topic ARNs directly.
+     */
+    UpdateTaskHandler(TaskRepository taskRepository, UserRepository userRepository,
+                      String taskAssignmentTopic, String taskCompleteTopicArn) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.taskAssignmentTopic = taskAssignmentTopic;
+        this.taskCompleteTopicArn = taskCompleteTopicArn;
+        initTimer.stop();
     }
 
 
@@ -74,14 +84,17 @@ public class UpdateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
     /**
      * Handles the API Gateway request to update a task.
      *
+     * The changed fields are written with one conditional UpdateItem. The condition checks that the
+     * caller may edit the task, that the status change is allowed from the stored status and, when
+     * the request carries a version, that nobody else has updated the task since it was read.
+     *
      * @param requestEvent The API Gateway request event containing the task update details.
      * @param context      The Lambda execution context.
      * @return An API Gateway response event with the result of the update operation.
      */
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
-        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
-        response.setHeaders(HeadersUtil.getHeaders());
+        initTimer.report(context);
 
         try {
             String taskId = requestEvent.getPathParameters().get("taskId");
@@ -94,151 +107,209 @@ public class UpdateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
             boolean isAdmin = "admin".equals(userRole);
             JsonNode messageBody = objectMapper.readTree(requestEvent.getBody());
 
-            Users user = Users.builder()
-                    .email(userEmail)
-                    .isAdmin(isAdmin)
-                    .build();
-
-            Map<String, AttributeValue> key = new HashMap<>();
-            key.put("taskId", new AttributeValue(taskId));
-
-            Tasks task = taskService.getTask(taskId);
-            if (task == null) {
-                response.setStatusCode(404);
-                response.setBody("{\"message\": \"Task not found\"}");
-                return response;
+            long now = System.currentTimeMillis();
+            TaskUpdate update = new TaskUpdate();
+            String targetStatus = null;
+            String newAssigneeEmail = null;
+            String newAssigneeId = null;
+            Long expectedVersion = messageBody.has("version") ? messageBody.get("version").asLong() : null;
+
+            if (messageBody.has("status")) {
+                targetStatus = TaskStatus.canonical(messageBody.get("status").asText());
+                if (targetStatus == null) {
+                    return createResponse(400, "Unknown status");
+                }
             }
 
-            
-            
-            if (!user.isAdmin()) {
-                // normal user
-                try {
-                    context.getLogger().log("Task update for user started");
-                    if (messageBody.has("status")) {
-                        task.setStatus(messageBody.get("status").asText());
-                    }
+            if (!isAdmin) {
+                // normal user: may comment on their own task and mark it completed
+                context.getLogger().log("Task update for user started");
+                update.requireEquals("assignedUserEmail", userEmail);
 
-                    if (messageBody.has("userComment")) {
-                        task.setUserComment(messageBody.get("userComment").asText());
-                    }
+                if (targetStatus != null && !TaskStatus.COMPLETED.equals(targetStatus)) {
+                    return createResponse(403, "Forbidden: Users can only mark a task as completed");
+                }
 
-                    // If task was marked as completed, notify admin
-                    if ((messageBody.get("status").asText()).equals("complete")) {
-
-                        Map<String, Object> notificationPayload = new HashMap<>();
-                        notificationPayload.put("taskId", taskId);
-                        notificationPayload.put("name", task.getName());
-                        notificationPayload.put("completedBy",  task.getAssignedUserEmail());
-                        notificationPayload.put("userComment", messageBody.get("userComment").asText());
-
-                         Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-                            messageAttributes.put("role", MessageAttributeValue.builder()
-                                    .dataType("String")
-                                    .stringValue("admin")
-                                    .build());
-
-                        PublishRequest publishRequest = PublishRequest.builder()
-                                .topicArn(taskCompleteTopicArn)
-                                .message(objectMapper.writeValueAsString(notificationPayload))
-                                .messageAttributes(messageAttributes)
-                                .build();
-
-                        snsClient.publish(publishRequest);
-                        context.getLogger().log("Task Updated...Email Sent");
+                if (messageBody.has("userComment")) {
+                    update.set("userComment", messageBody.get("userComment").asText());
+                }
+            } else {
+                // admin
+                // Clients send the whole form back, so only a value that differs from the stored task
+                // reassigns or reopens it
+                Tasks stored = null;
+                if (messageBody.has("assignedUserEmail") || messageBody.has("deadline")) {
+                    stored = taskRepository.findById(taskId, COMPARED_ATTRIBUTES);
+                    if (stored == null) {
+                        return createResponse(404, "Task not found");
                     }
+                }
+                String requestedAssignee = messageBody.has("assignedUserEmail")
+                        ? messageBody.get("assignedUserEmail").asText() : null;
+                Long requestedDeadline = messageBody.has("deadline") ? messageBody.get("deadline").asLong() : null;
+                boolean reassigning = requestedAssignee != null
+                        && !Objects.equals(requestedAssignee, stored.getAssignedUserEmail());
+                boolean rescheduling = requestedDeadline != null
+                        && !Objects.equals(requestedDeadline, stored.getDeadline());
+
+                // A new assignee or deadline reopens the task, which no other status can be combined with
+                if (targetStatus != null && !TaskStatus.OPEN.equals(targetStatus) && (reassigning || rescheduling)) {
+                    return createResponse(400, "status " + targetStatus
+                            + " cannot be combined with a new assignedUserEmail or deadline, which reopen the task");
+                }
 
-                    task.setStatus("complete");
-
-                    Map<String, AttributeValue> updateItemRequest = TasksMapper.toItem(task);
-                    PutItemRequest putItemRequest = new PutItemRequest()
-                        .withTableName(taskTableName)
-                        .withItem(updateItemRequest);
-
-                    dynamoDbClient.putItem(putItemRequest);
-                    logger.info("Task {} updated successfully", taskId);
+                if (messageBody.has("name")) {
+                    update.set("name", messageBody.get("name").asText());
+                }
 
-                    return createSuccessResponse();
-                } catch (Exception e) {
-                    context.getLogger().log("ERROR:" + e.getMessage());
-                    return createServerErrorResponse("There was an error while updating the task");
+                if (messageBody.has("description")) {
+                    update.set("description", messageBody.get("description").asText());
                 }
-            }
-            else {
-                try {
-                    // admin
-                    // set the values
-                    if (messageBody.has("name")) {
-                        task.setName(messageBody.get("name").asText());
-                    }
 
-                    if (messageBody.has("status")) {
-                        task.setStatus(messageBody.get("status").asText());
-                    }
-    
-                    if (messageBody.has("description")) {
-                        task.setDescription(messageBody.get("description").asText());
-                    }
+                if (messageBody.has("adminComment")) {
+                    update.set("adminComment", messageBody.get("adminComment").asText());
+                }
 
-                    if (messageBody.has("adminComment")) {
-                        task.setAdminComment(messageBody.get("adminComment").asText());
+                if (reassigning) {
+                    newAssigneeEmail = requestedAssignee;
+                    newAssigneeId = UserUtils.getUserIdByEmail(userRepository, newAssigneeEmail, context);
+                    if (newAssigneeId == null) {
+                        return createResponse(400, "User does not exist");
                     }
+                    update.set("assignedUserEmail", newAssigneeEmail)
+                            .set("assignedUserId", newAssigneeId)
+                            .requireIn("status", REASSIGNABLE_STATUSES);
+                    targetStatus = TaskStatus.OPEN;
+                }
 
-                    boolean newlyAssigned = false;
-                    if (messageBody.has("assignedUserEmail") &&
-                            !Objects.equals(messageBody.get("assignedUserEmail").asText(), task.getAssignedUserEmail())) {
-                        if (task == null || (!task.getStatus().equals("closed") && !task.getStatus().equals("expired"))) {
-                            return new APIGatewayProxyResponseEvent()
-                                    .withStatusCode(403)
-                                    .withHeaders(HeadersUtil.getHeaders())
-                                    .withBody("{\"message\": \"Forbidden: Only closed or expired tasks can be reassigned\"}");
-                        }
-                        task.setAssignedUserEmail(messageBody.get("assignedUserEmail").asText());
-                        newlyAssigned = true;
-                        task.setStatus("open");
+                if (rescheduling) {
+                    update.set("deadline", requestedDeadline);
+                    targetStatus = TaskStatus.OPEN;
+                    String deadlineBucket = DeadlineBucketUtil.bucketFor(TaskStatus.OPEN, requestedDeadline);
+                    if (deadlineBucket != null) {
+                        update.set(DeadlineBucketUtil.ATTRIBUTE, deadlineBucket);
                     }
+                }
 
-                    if (messageBody.has("deadline") &&
-                            !Objects.equals(task.getDeadline(), messageBody.get("deadline").asLong())) {
-                        task.setDeadline(messageBody.get("deadline").asLong());
-                        task.setStatus("open");
+                // Nothing but unchanged values: succeed without writing, as resending the form did before
+                if (!update.hasChanges() && targetStatus == null && stored != null) {
+                    long currentVersion = stored.getVersion() == null ? 0 : stored.getVersion();
+                    if (expectedVersion != null && expectedVersion != currentVersion) {
+                        return createConflictResponse(stored, true, userEmail, expectedVersion, false, null);
                     }
+                    return createSuccessResponse(currentVersion);
+                }
+            }
 
-                    
-
-                    
+            if (targetStatus != null) {
+                update.set("status", targetStatus);
+                // A reassignment already limits the stored status to closed or expired
+                if (newAssigneeEmail == null) {
+                    update.requireIn("status", TaskStatus.allowedPrevious(targetStatus));
+                }
+                if (TaskStatus.COMPLETED.equals(targetStatus)) {
+                    update.set("completedAt", now);
+                }
+                if (!TaskStatus.OPEN.equals(targetStatus)) {
+                    update.remove(DeadlineBucketUtil.ATTRIBUTE);
+                }
+            }
 
-                    
+            if (!update.hasChanges()) {
+                return createResponse(400, "No updatable fields in request");
+            }
+            update.set("updatedAt", now);
 
-                    if(newlyAssigned) {
-                        String userId = UserUtils.getUserIdByEmail(dynamoDbClient, userTableName, messageBody.get("assignedUserEmail").asText(), context);
-                        if(userId == null) {
-                            context.getLogger().log("User not found. Message should not be sent. Return createServerErrorResponse");
-                            return createServerErrorResponse("User does not exist");
-                        }
-                        String emailMessage = String.format("You have been reassigned to task %s", task.getName());
-                        snsPublisher.publishTaskAssignment(taskAssignmentTopic, emailMessage, userId, context);
-                    }
+            if (expectedVersion != null) {
+                update.requireVersion(expectedVersion);
+            }
 
-                    Map<String, AttributeValue> updateItemRequest = TasksMapper.toItem(task);
-                    PutItemRequest putItemRequest = new PutItemRequest()
-                        .withTableName(taskTableName)
-                        .withItem(updateItemRequest);
+            // Completion is only notified when a user marks their own task completed
+            boolean notifyCompleted = !isAdmin && TaskStatus.COMPLETED.equals(targetStatus);
+            String reassignedUserId = newAssigneeId;
+
+            Tasks task;
+            try {
+                task = taskRepository.update(taskId, update, notifyCompleted || reassignedUserId != null
+                        ? updated -> updateEvents(updated, notifyCompleted, reassignedUserId)
+                        : null);
+            } catch (TaskUpdateConflictException e) {
+                return createConflictResponse(e.getCurrentTask(), isAdmin, userEmail, expectedVersion,
+                        newAssigneeEmail != null, targetStatus);
+            }
+            logger.info("Task {} updated successfully to version {}", taskId, task.getVersion());
 
-                    dynamoDbClient.putItem(putItemRequest);
-                    logger.info("Task {} updated successfully", taskId);
+            // A reopen that kept the deadline could not set the index bucket in the same write
+            taskRepository.syncDeadlineBucket(task);
 
-                    return createSuccessResponse();
+            return createSuccessResponse(task.getVersion());
 
+        } catch (UserLookupException e) {
+            context.getLogger().log("ERROR:" + e.getMessage());
+            return createResponse(503, "The user could not be looked up, please retry");
+        } catch (Exception e) {
+            context.getLogger().log("ERROR:" + e.getMessage());
+            return createServerErrorResponse("There was an error while updating the task");
+        }
+    }
 
-                } catch (Exception e) {
-                    return createServerErrorResponse("There was an error while updating the task");
-                }
+    /**
+     * The admin notification for a completed task and the email to a new assignee, built from
+     * the task as it is after the update.
+     */
+    private List<OutboxEvent> updateEvents(Tasks task, boolean completed, String newAssigneeId) {
+        List<OutboxEvent> events = new ArrayList<>();
+        if (completed) {
+            Map<String, Object> notificationPayload = new HashMap<>();
+            notificationPayload.put("taskId", task.getTaskId());
+            notificationPayload.put("name", task.getName());
+            notificationPayload.put("completedBy", task.getAssignedUserEmail());
+            notificationPayload.put("userComment", task.getUserComment());
+            try {
+                events.add(OutboxEvent.sns(taskCompleteTopicArn, null,
+                        objectMapper.writeValueAsString(notificationPayload), Map.of("role", "admin")));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
             }
+        }
+        if (newAssigneeId != null) {
+            String emailMessage = String.format("You have been reassigned to task %s", task.getName());
+            events.add(OutboxEvent.sns(taskAssignmentTopic, null, emailMessage, Map.of("userId", newAssigneeId)));
+        }
+        return events;
+    }
 
-        } catch (Exception e) {
-            return createServerErrorResponse("There was an error while updating the task");
+    /**
+     * Works out from the stored task which condition of the update failed.
+     */
+    static APIGatewayProxyResponseEvent createConflictResponse(Tasks current, boolean isAdmin, String userEmail,
+                                                               Long expectedVersion, boolean reassigned,
+                                                               String targetStatus) {
+        if (current == null) {
+            return createResponse(404, "Task not found");
         }
+        if (!isAdmin && !userEmail.equals(current.getAssignedUserEmail())) {
+            return createResponse(403, "Forbidden: Task is not assigned to you");
+        }
+
+        long currentVersion = current.getVersion() == null ? 0 : current.getVersion();
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(409)
+                    .withBody("{\"message\": \"Task was modified by another request\", \"currentVersion\": " + currentVersion + "}")
+                    .withHeaders(HeadersUtil.getHeaders());
+        }
+        if (reassigned) {
+            return createResponse(403, "Forbidden: Only closed or expired tasks can be reassigned");
+        }
+        return createResponse(409, "Cannot change task status from " + current.getStatus() + " to " + targetStatus);
+    }
+
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String message) {
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(statusCode)
+                .withBody("{\"message\": \"" + message + "\"}")
+                .withHeaders(HeadersUtil.getHeaders());
     }
 
 
@@ -265,10 +336,10 @@ public class UpdateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
     }
 
 
-    private static APIGatewayProxyResponseEvent createSuccessResponse() {
+    private static APIGatewayProxyResponseEvent createSuccessResponse(Long version) {
         return new APIGatewayProxyResponseEvent()
                 .withStatusCode(200)
-                .withBody("{\"message\": \"Task updated successfully\"}")
+                .withBody("{\"message\": \"Task updated successfully\", \"version\": " + version + "}")
                 .withHeaders(HeadersUtil.getHeaders());
     }
 }
\ No newline at end of file
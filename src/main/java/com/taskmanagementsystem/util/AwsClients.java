@@ -0,0 +1,143 @@
+package com.taskmanagementsystem.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.sfn.SfnClient;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+/**
+ * Registry of the AWS clients used by the handlers.
+ *
+ * Each client is built the first time it is asked for and then reused for the life of the
+ * container. All clients share one url-connection HTTP client, and every client takes
+ * its region from REGION and has explicit timeouts instead of the SDK defaults, so building
+ * one does not walk the default region provider chain.
+ *
+ * Timeouts can be tuned with AWS_CONNECT_TIMEOUT_MS, AWS_SOCKET_TIMEOUT_MS,
+ * AWS_API_CALL_ATTEMPT_TIMEOUT_MS and AWS_API_CALL_TIMEOUT_MS.
+ */
+public final class AwsClients {
+
+    private static final Logger logger = LogManager.getLogger(AwsClients.class);
+
+    private static final String REGION = System.getenv("REGION");
+    private static final Duration CONNECT_TIMEOUT = readDuration("AWS_CONNECT_TIMEOUT_MS", 2_000);
+    private static final Duration SOCKET_TIMEOUT = readDuration("AWS_SOCKET_TIMEOUT_MS", 10_000);
+    private static final Duration API_CALL_ATTEMPT_TIMEOUT = readDuration("AWS_API_CALL_ATTEMPT_TIMEOUT_MS", 10_000);
+    private static final Duration API_CALL_TIMEOUT = readDuration("AWS_API_CALL_TIMEOUT_MS", 30_000);
+
+    private static final List<String> builtClients = new ArrayList<>();
+
+    private AwsClients() {
+    }
+
+    public static DynamoDbClient dynamoDb() {
+        return DynamoDbHolder.CLIENT;
+    }
+
+    public static DynamoDbEnhancedClient dynamoDbEnhanced() {
+        return DynamoDbEnhancedHolder.CLIENT;
+    }
+
+    public static SnsClient sns() {
+        return SnsHolder.CLIENT;
+    }
+
+    public static SqsClient sqs() {
+        return SqsHolder.CLIENT;
+    }
+
+    public static SfnClient sfn() {
+        return SfnHolder.CLIENT;
+    }
+
+    public static CognitoIdentityProviderClient cognito() {
+        return CognitoHolder.CLIENT;
+    }
+
+    /**
+     * Names and build times of the clients built so far in this container.
+     */
+    public static synchronized List<String> getBuiltClients() {
+        return new ArrayList<>(builtClients);
+    }
+
+    // Each holder class is initialized on first access, which makes the build lazy and thread-safe
+
+    private static final class HttpClientHolder {
+        static final SdkHttpClient CLIENT = UrlConnectionHttpClient.builder()
+                .connectionTimeout(CONNECT_TIMEOUT)
+                .socketTimeout(SOCKET_TIMEOUT)
+                .build();
+    }
+
+    private static final class DynamoDbHolder {
+        static final DynamoDbClient CLIENT = build("DynamoDbClient", () -> configure(DynamoDbClient.builder()).build());
+    }
+
+    private static final class DynamoDbEnhancedHolder {
+        static final DynamoDbEnhancedClient CLIENT = build("DynamoDbEnhancedClient",
+                () -> DynamoDbEnhancedClient.builder().dynamoDbClient(DynamoDbHolder.CLIENT).build());
+    }
+
+    private static final class SnsHolder {
+        static final SnsClient CLIENT = build("SnsClient", () -> configure(SnsClient.builder()).build());
+    }
+
+    private static final class SqsHolder {
+        static final SqsClient CLIENT = build("SqsClient", () -> configure(SqsClient.builder()).build());
+    }
+
+    private static final class SfnHolder {
+        static final SfnClient CLIENT = build("SfnClient", () -> configure(SfnClient.builder()).build());
+    }
+
+    private static final class CognitoHolder {
+        static final CognitoIdentityProviderClient CLIENT = build("CognitoIdentityProviderClient",
+                () -> configure(CognitoIdentityProviderClient.builder()).build());
+    }
+
+    private static <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B configure(B builder) {
+        builder.httpClient(HttpClientHolder.CLIENT)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .apiCallAttemptTimeout(API_CALL_ATTEMPT_TIMEOUT)
+                        .apiCallTimeout(API_CALL_TIMEOUT)
+                        .build());
+        if (REGION != null && !REGION.isEmpty()) {
+            builder.region(Region.of(REGION));
+        }
+        return builder;
+    }
+
+    private static <T> T build(String name, Supplier<T> factory) {
+        long start = System.nanoTime();
+        T client = factory.get();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        synchronized (AwsClients.class) {
+            builtClients.add(name + "=" + elapsedMillis + "ms");
+        }
+        logger.info("Built {} in {} ms", name, elapsedMillis);
+        return client;
+    }
+
+    private static Duration readDuration(String name, long defaultMillis) {
+        String value = System.getenv(name);
+        return Duration.ofMillis(value == null || value.isEmpty() ? defaultMillis : Long.parseLong(value));
+    }
+}
@@ -0,0 +1,203 @@
+package com.taskmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.exception.SdkException;
+
+/**
+ * Buffers entries per destination and sends them through a batch API, 10 entries per request.
+ * Subclasses adapt one API: they build the entries, send a batch and report its outcome.
+ *
+ * A destination's buffer is sent when it holds 10 entries, when the next entry would push the
+ * request past 256 KiB (message bodies and attributes), or when its oldest entry has waited
+ * longer than the linger time, checked as entries are added. There is no background timer, so
+ * {@link #flush(Context)} must be called, after every {@code add} has returned, before the
+ * invocation returns. Entries that fail with a service-side error are retried on their own
+ * with backoff; entries rejected as sender faults are not.
+ *
+ * Adding is thread-safe. A full batch is taken out of the buffer under the lock and sent
+ * outside it by the thread that filled it, so other threads keep adding while it is in flight.
+ * Instances are not shared between invocations.
+ */
+public abstract class BatchSender<E> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSender.class);
+
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 100;
+
+    private final String name;
+    private final String idPrefix;
+    private final long lingerMillis;
+    private final Map<String, Buffer<E>> buffers = new LinkedHashMap<>();
+    private final Queue<String> failedIds = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sentCount = new AtomicInteger();
+    private int nextId;
+
+    /**
+     * @param name used in log messages, such as "SNS publish batch"
+     * @param idPrefix keeps the entry ids of different senders apart
+     */
+    protected BatchSender(String name, String idPrefix, long lingerMillis) {
+        this.name = name;
+        this.idPrefix = idPrefix;
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Sends one batch of entries to a destination.
+     */
+    protected abstract BatchResult sendBatch(String destination, List<E> entries);
+
+    protected abstract String idOf(E entry);
+
+    /**
+     * The bytes the entry counts towards the request size limit.
+     */
+    protected abstract int sizeOf(E entry);
+
+    /**
+     * Queues the entry built for a new id and returns the id, which {@link #flush(Context)}
+     * reports back on failure.
+     */
+    protected final String add(String destination, Function<String, E> entryForId) {
+        String id;
+        List<E> overflow = null;
+        List<E> ready = null;
+        synchronized (this) {
+            id = idPrefix + nextId++;
+            E entry = entryForId.apply(id);
+            int size = sizeOf(entry);
+
+            Buffer<E> buffer = buffers.get(destination);
+            if (buffer != null && buffer.bytes + size > MAX_BATCH_BYTES) {
+                buffers.remove(destination);
+                overflow = buffer.entries;
+                buffer = null;
+            }
+            if (buffer == null) {
+                buffer = new Buffer<>(System.currentTimeMillis());
+                buffers.put(destination, buffer);
+            }
+            buffer.entries.add(entry);
+            buffer.bytes += size;
+
+            if (buffer.entries.size() == MAX_BATCH_SIZE || System.currentTimeMillis() - buffer.createdAt >= lingerMillis) {
+                buffers.remove(destination);
+                ready = buffer.entries;
+            }
+        }
+
+        if (overflow != null) {
+            send(destination, overflow);
+        }
+        if (ready != null) {
+            send(destination, ready);
+        }
+        return id;
+    }
+
+    /**
+     * Sends every buffered entry.
+     *
+     * @return ids of entries that could not be sent, including those from earlier automatic sends
+     */
+    public List<String> flush(Context context) {
+        Map<String, Buffer<E>> pending;
+        synchronized (this) {
+            pending = new LinkedHashMap<>(buffers);
+            buffers.clear();
+        }
+        for (Map.Entry<String, Buffer<E>> buffer : pending.entrySet()) {
+            send(buffer.getKey(), buffer.getValue().entries);
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (String id = failedIds.poll(); id != null; id = failedIds.poll()) {
+            failed.add(id);
+        }
+        context.getLogger().log(name + ": " + sentCount.getAndSet(0) + " sent, " + failed.size() + " failed");
+        return failed;
+    }
+
+    private void send(String destination, List<E> entries) {
+        List<E> remaining = entries;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                sleep(BASE_BACKOFF_MILLIS << (attempt - 2));
+            }
+
+            BatchResult result;
+            try {
+                result = sendBatch(destination, remaining);
+            } catch (SdkException e) {
+                logger.warn("{} to {} failed: {}", name, destination, e.getMessage());
+                continue;
+            }
+
+            sentCount.addAndGet(result.successful());
+            List<E> retry = new ArrayList<>();
+            for (EntryError error : result.failed()) {
+                E entry = findEntry(remaining, error.id());
+                if (error.senderFault() || entry == null) {
+                    logger.warn("{} entry {} rejected: {} {}", name, error.id(), error.code(), error.message());
+                    failedIds.add(error.id());
+                } else {
+                    retry.add(entry);
+                }
+            }
+            remaining = retry;
+        }
+
+        for (E entry : remaining) {
+            failedIds.add(idOf(entry));
+        }
+    }
+
+    private E findEntry(List<E> entries, String id) {
+        for (E entry : entries) {
+            if (idOf(entry).equals(id)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The outcome of one batch request: how many entries were accepted and which failed.
+     */
+    protected record BatchResult(int successful, List<EntryError> failed) {}
+
+    protected record EntryError(String id, boolean senderFault, String code, String message) {}
+
+    private static class Buffer<E> {
+        private final long createdAt;
+        private final List<E> entries = new ArrayList<>();
+        private int bytes;
+
+        private Buffer(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
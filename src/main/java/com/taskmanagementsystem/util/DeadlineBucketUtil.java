@@ -0,0 +1,52 @@
+package com.taskmanagementsystem.util;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.taskmanagementsystem.entities.TaskStatus;
+
+/**
+ * Helpers for the sparse OpenDeadlineIndex on the task table.
+ *
+ * Only open tasks with a deadline carry the openDeadlineBucket attribute. Its value is the UTC
+ * hour the deadline falls in, so all tasks due within the same hour share one index partition
+ * sorted by deadline. Every write path that changes status or deadline must keep it in sync:
+ * set it while the task is open and remove it once the task is completed, closed or expired.
+ */
+public class DeadlineBucketUtil {
+
+    public static final String INDEX_NAME = "OpenDeadlineIndex";
+    public static final String ATTRIBUTE = "openDeadlineBucket";
+
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Returns the bucket for a task, or null when the task should not appear in the index.
+     */
+    public static String bucketFor(String status, Long deadline) {
+        if (deadline == null || !TaskStatus.isOpen(status)) {
+            return null;
+        }
+        return BUCKET_FORMAT.format(Instant.ofEpochMilli(deadline));
+    }
+
+    /**
+     * Returns every hourly bucket overlapping the inclusive [startMillis, endMillis] window.
+     */
+    public static List<String> bucketsBetween(long startMillis, long endMillis) {
+        List<String> buckets = new ArrayList<>();
+        Instant hour = Instant.ofEpochMilli(startMillis).truncatedTo(ChronoUnit.HOURS);
+        Instant end = Instant.ofEpochMilli(endMillis);
+        while (!hour.isAfter(end)) {
+            buckets.add(BUCKET_FORMAT.format(hour));
+            hour = hour.plus(1, ChronoUnit.HOURS);
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,78 @@
+package com.taskmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.taskmanagementsystem.entities.Tasks;
+
+/**
+ * ETags for the task read endpoints.
+ *
+ * Every task write increments the task's version, so a digest of the taskId and version of each
+ * returned task (updatedAt for tasks written before versioning), together with the next page
+ * token and the requested fields, changes whenever the response would. Computing it needs no
+ * serialization of the tasks themselves.
+ */
+public class ETagUtil {
+
+    /**
+     * Attributes that must be read for {@link #forTasks} to work, whatever fields were requested.
+     */
+    public static final List<String> REQUIRED_ATTRIBUTES = List.of("taskId", "version", "updatedAt");
+
+    public static String forTasks(List<Tasks> tasks, String nextToken, Collection<String> fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        for (Tasks task : tasks) {
+            update(digest, task.getTaskId());
+            update(digest, task.getVersion() != null ? "v" + task.getVersion() : "u" + task.getUpdatedAt());
+        }
+        update(digest, nextToken);
+        update(digest, fields == null ? null : String.join(",", fields));
+
+        byte[] hash = digest.digest();
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+    }
+
+    /**
+     * Whether the request's If-None-Match header already names this ETag.
+     */
+    public static boolean matches(Map<String, String> requestHeaders, String etag) {
+        if (requestHeaders == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+            // API Gateway passes header names through with the client's casing
+            if (!"If-None-Match".equalsIgnoreCase(header.getKey()) || header.getValue() == null) {
+                continue;
+            }
+            for (String candidate : header.getValue().split(",")) {
+                String value = candidate.trim();
+                // If-None-Match uses weak comparison
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        // Separator keeps adjacent values from running into each other
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
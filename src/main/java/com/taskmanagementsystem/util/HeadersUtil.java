@@ -1,5 +1,6 @@
 package com.taskmanagementsystem.util;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class HeadersUtil {
@@ -9,7 +10,20 @@ public class HeadersUtil {
                 "Content-Type", "application/json",
                 "Access-Control-Allow-Origin", "*",
                 "Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS",
-                "Access-Control-Allow-Headers", "Content-Type, Authorization"
+                "Access-Control-Allow-Headers", "Content-Type, Authorization, If-None-Match, Idempotency-Key"
         );
     }
+
+    /**
+     * Headers for a GET response that clients may cache and revalidate with If-None-Match.
+     * The response is per user, so only private caches may keep it, and they must revalidate
+     * before every reuse.
+     */
+    public static Map<String, String> getConditionalHeaders(String etag) {
+        Map<String, String> headers = new HashMap<>(getHeaders());
+        headers.put("ETag", etag);
+        headers.put("Cache-Control", "private, no-cache");
+        headers.put("Access-Control-Expose-Headers", "ETag");
+        return headers;
+    }
 }
@@ -0,0 +1,39 @@
+package com.taskmanagementsystem.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+/**
+ * Measures how long a handler takes to initialize and logs it once, on the first invocation
+ * of the container, together with the AWS clients built during init.
+ *
+ * Declare it as the handler's first field, call {@link #stop()} at the end of the constructor
+ * and {@link #report(Context)} at the start of handleRequest.
+ */
+public class InitTimer {
+
+    private final String handlerName;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile long initMillis = -1;
+
+    private InitTimer(String handlerName) {
+        this.handlerName = handlerName;
+    }
+
+    public static InitTimer start(Class<?> handler) {
+        return new InitTimer(handler.getSimpleName());
+    }
+
+    public void stop() {
+        initMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public void report(Context context) {
+        if (reported.compareAndSet(false, true)) {
+            context.getLogger().log("Init " + handlerName + ": " + initMillis + " ms, clients "
+                    + AwsClients.getBuiltClients());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.taskmanagementsystem.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that escapes everything written to it as the contents of a JSON string.
+ *
+ * Lets a JsonGenerator write a whole document into a string field of an enclosing document,
+ * such as the body of an API Gateway proxy response, without building the document in memory
+ * first. Closing it only flushes, so the enclosing document can still be finished.
+ */
+public class JsonStringEscapingWriter extends Writer {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+
+    public JsonStringEscapingWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write("\\u00");
+                        out.write(HEX[c >> 4]);
+                        out.write(HEX[c & 0xF]);
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,118 @@
+package com.taskmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Converts a DynamoDB LastEvaluatedKey into an opaque, URL-safe nextToken and back.
+ *
+ * Key attributes are always strings or numbers, so each entry is stored as
+ * {"name": {"S": "value"}} or {"name": {"N": "value"}} before being Base64 encoded.
+ */
+public class PageTokenUtil {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> token = new HashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            AttributeValue value = entry.getValue();
+            if (value.s() != null) {
+                token.put(entry.getKey(), Map.of("S", value.s()));
+            } else if (value.n() != null) {
+                token.put(entry.getKey(), Map.of("N", value.n()));
+            } else {
+                throw new IllegalStateException("Unsupported key attribute type for " + entry.getKey());
+            }
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(token);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to encode page token", e);
+        }
+    }
+
+    /**
+     * Whether a decoded token may continue a query of the given partition: it must carry the
+     * partition key attribute with that value. A token from a scan, or one minted for another
+     * partition, would otherwise start the query at a key of someone else's data. A null token
+     * (the first page) always matches.
+     */
+    public static boolean isForPartition(Map<String, AttributeValue> exclusiveStartKey, String partitionAttribute,
+                                         String partitionValue) {
+        if (exclusiveStartKey == null) {
+            return true;
+        }
+        AttributeValue value = exclusiveStartKey.get(partitionAttribute);
+        return value != null && partitionValue.equals(value.s());
+    }
+
+    /**
+     * Parses the limit query parameter, falling back to the default when it is absent.
+     *
+     * @throws IllegalArgumentException if the value is not a number between 1 and maxSize
+     */
+    public static int parseLimit(String limitParam, int defaultSize, int maxSize) {
+        if (limitParam == null || limitParam.isEmpty()) {
+            return defaultSize;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a number");
+        }
+        if (limit < 1 || limit > maxSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSize);
+        }
+        return limit;
+    }
+
+    public static Map<String, AttributeValue> decode(String nextToken) {
+        if (nextToken == null || nextToken.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> token;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(nextToken);
+            token = objectMapper.readValue(new String(json, StandardCharsets.UTF_8),
+                    new TypeReference<Map<String, Map<String, String>>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid nextToken");
+        }
+
+        Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : token.entrySet()) {
+            Map<String, String> value = entry.getValue();
+            if (value == null) {
+                throw new IllegalArgumentException("Invalid nextToken");
+            }
+            if (value.containsKey("S")) {
+                exclusiveStartKey.put(entry.getKey(), AttributeValue.builder().s(value.get("S")).build());
+            } else if (value.containsKey("N")) {
+                exclusiveStartKey.put(entry.getKey(), AttributeValue.builder().n(value.get("N")).build());
+            } else {
+                throw new IllegalArgumentException("Invalid nextToken");
+            }
+        }
+
+        if (exclusiveStartKey.isEmpty()) {
+            throw new IllegalArgumentException("Invalid nextToken");
+        }
+        return exclusiveStartKey;
+    }
+}
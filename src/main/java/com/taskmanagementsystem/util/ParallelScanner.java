@@ -0,0 +1,192 @@
+package com.taskmanagementsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * Runs a DynamoDB scan as N parallel segments and streams every item to a consumer.
+ *
+ * Each segment follows LastEvaluatedKey until it is exhausted, so the whole table is read
+ * regardless of the 1 MB page limit. The consumer is called from several worker threads
+ * at once and must be thread-safe.
+ *
+ * Segment count and read budget default to the SCAN_SEGMENTS and SCAN_RCU_BUDGET
+ * environment variables. A budget of 0 disables throttling. The budget is shared by every
+ * page read through this scanner, including those of {@link #forEachSegment} tasks.
+ */
+public class ParallelScanner {
+
+    private static final int DEFAULT_SEGMENTS = 4;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final int totalSegments;
+    private final double rcuPerSecond;
+    private final Object budgetLock = new Object();
+    private long nextAvailableNanos;
+
+    public ParallelScanner(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient,
+                readInt("SCAN_SEGMENTS", DEFAULT_SEGMENTS),
+                readDouble("SCAN_RCU_BUDGET", 0));
+    }
+
+    public ParallelScanner(DynamoDbClient dynamoDbClient, int totalSegments, double rcuPerSecond) {
+        if (totalSegments < 1 || totalSegments > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("totalSegments must be between 1 and " + MAX_SEGMENTS);
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.totalSegments = totalSegments;
+        this.rcuPerSecond = rcuPerSecond;
+    }
+
+    public int getTotalSegments() {
+        return totalSegments;
+    }
+
+    /**
+     * Scans every segment of the table described by the request template.
+     *
+     * @param template scan request carrying table, index, filter and projection settings
+     * @param consumer thread-safe callback invoked once per returned item
+     * @return the number of items passed to the consumer
+     */
+    public long scan(ScanRequest template, Consumer<Map<String, AttributeValue>> consumer) {
+        AtomicLong itemCount = new AtomicLong();
+        for (SegmentOutcome<Void> outcome : this.<Void>forEachSegment((segment, total) -> {
+            scanSegment(template, segment, consumer, itemCount);
+            return null;
+        })) {
+            if (outcome.failure() instanceof RuntimeException) {
+                throw (RuntimeException) outcome.failure();
+            }
+            if (outcome.failure() != null) {
+                throw new IllegalStateException("Parallel scan failed", outcome.failure());
+            }
+        }
+        return itemCount.get();
+    }
+
+    /**
+     * Runs a task once per segment, all segments in parallel, for callers that page through
+     * their segment themselves with {@link #scanPage}. A failing segment does not stop the others.
+     *
+     * @return one outcome per segment, in segment order
+     */
+    public <T> List<SegmentOutcome<T>> forEachSegment(SegmentTask<T> task) {
+        ExecutorService executor = Executors.newFixedThreadPool(totalSegments);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int segment = 0; segment < totalSegments; segment++) {
+                final int currentSegment = segment;
+                futures.add(executor.submit(() -> task.run(currentSegment, totalSegments)));
+            }
+
+            List<SegmentOutcome<T>> outcomes = new ArrayList<>();
+            for (Future<T> future : futures) {
+                try {
+                    outcomes.add(new SegmentOutcome<>(future.get(), null));
+                } catch (ExecutionException e) {
+                    outcomes.add(new SegmentOutcome<>(null, e.getCause()));
+                }
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel scan interrupted", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Reads one page and charges the capacity it used to the read budget, waiting if the
+     * segments together are reading faster than SCAN_RCU_BUDGET allows.
+     */
+    public ScanResponse scanPage(ScanRequest request) {
+        ScanResponse response = dynamoDbClient.scan(request.toBuilder()
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build());
+        if (response.consumedCapacity() != null && response.consumedCapacity().capacityUnits() != null) {
+            throttle(response.consumedCapacity().capacityUnits());
+        }
+        return response;
+    }
+
+    private void scanSegment(ScanRequest template, int segment,
+                             Consumer<Map<String, AttributeValue>> consumer, AtomicLong itemCount) {
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResponse response = scanPage(template.toBuilder()
+                    .segment(segment)
+                    .totalSegments(totalSegments)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                consumer.accept(item);
+                itemCount.incrementAndGet();
+            }
+            exclusiveStartKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty() && !Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Keeps the combined read rate of all segments under the configured budget by
+     * making the calling segment wait until the capacity it just used has been paid back.
+     */
+    private void throttle(double consumedUnits) {
+        if (rcuPerSecond <= 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (budgetLock) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextAvailableNanos);
+            nextAvailableNanos = start + (long) (consumedUnits / rcuPerSecond * 1_000_000_000L);
+            waitNanos = start - now;
+        }
+
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static int readInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static double readDouble(String name, double defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Double.parseDouble(value);
+    }
+
+    @FunctionalInterface
+    public interface SegmentTask<T> {
+        T run(int segment, int totalSegments) throws Exception;
+    }
+
+    /**
+     * The result of one segment, or the exception it failed with.
+     */
+    public record SegmentOutcome<T>(T result, Throwable failure) {}
+}
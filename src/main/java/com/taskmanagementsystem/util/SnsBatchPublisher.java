@@ -0,0 +1,83 @@
+package com.taskmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+
+/**
+ * Collects SNS notifications per topic and sends them with PublishBatch. A topic is sent as
+ * soon as it has a full batch; see {@link BatchSender} for batching and retries.
+ */
+public class SnsBatchPublisher extends BatchSender<PublishBatchRequestEntry> {
+
+    private final SnsClient snsClient;
+
+    public SnsBatchPublisher(SnsClient snsClient) {
+        super("SNS batch publish", "n", Long.MAX_VALUE);
+        this.snsClient = snsClient;
+    }
+
+    /**
+     * Queues a notification and returns its entry id, which {@link #flush} reports back on failure.
+     */
+    public String add(String topicArn, String subject, String message, Map<String, String> attributes) {
+        Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+        if (attributes != null) {
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                messageAttributes.put(attribute.getKey(), MessageAttributeValue.builder()
+                        .dataType("String")
+                        .stringValue(attribute.getValue())
+                        .build());
+            }
+        }
+
+        return add(topicArn, id -> PublishBatchRequestEntry.builder()
+                .id(id)
+                .subject(subject)
+                .message(message)
+                .messageAttributes(messageAttributes)
+                .build());
+    }
+
+    @Override
+    protected BatchResult sendBatch(String topicArn, List<PublishBatchRequestEntry> entries) {
+        PublishBatchResponse response = snsClient.publishBatch(PublishBatchRequest.builder()
+                .topicArn(topicArn)
+                .publishBatchRequestEntries(entries)
+                .build());
+
+        List<EntryError> failed = new ArrayList<>();
+        for (BatchResultErrorEntry error : response.failed()) {
+            failed.add(new EntryError(error.id(), Boolean.TRUE.equals(error.senderFault()), error.code(), error.message()));
+        }
+        return new BatchResult(response.successful().size(), failed);
+    }
+
+    @Override
+    protected String idOf(PublishBatchRequestEntry entry) {
+        return entry.id();
+    }
+
+    @Override
+    protected int sizeOf(PublishBatchRequestEntry entry) {
+        int size = bytes(entry.message()) + bytes(entry.subject());
+        for (Map.Entry<String, MessageAttributeValue> attribute : entry.messageAttributes().entrySet()) {
+            size += bytes(attribute.getKey()) + bytes(attribute.getValue().dataType())
+                    + bytes(attribute.getValue().stringValue());
+        }
+        return size;
+    }
+
+    private static int bytes(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
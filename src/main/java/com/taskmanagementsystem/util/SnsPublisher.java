@@ -16,19 +16,34 @@ public class SnsPublisher {
     private final SnsClient snsClient;
 
     public SnsPublisher() {
-        this.snsClient = SnsClient.create();
+        this.snsClient = AwsClients.sns();
+    }
+
+    /**
+     * Starts a batch for handlers that send more than one notification per invocation.
+     * The batch shares this publisher's client and must be flushed before the handler returns.
+     */
+    public SnsBatchPublisher newBatch() {
+        return new SnsBatchPublisher(snsClient);
     }
 
     public void publishTaskAssignment(String topicArn, String message, String userId, Context context) {
+        publish(topicArn, null, message, Map.of("userId", userId), context);
+    }
+
+    public void publish(String topicArn, String subject, String message, Map<String, String> attributes, Context context) {
         try {
             Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-            messageAttributes.put("userId", MessageAttributeValue.builder()
-                    .dataType("String")
-                    .stringValue(userId)
-                    .build());
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                messageAttributes.put(attribute.getKey(), MessageAttributeValue.builder()
+                        .dataType("String")
+                        .stringValue(attribute.getValue())
+                        .build());
+            }
 
             PublishRequest request = PublishRequest.builder()
                     .message(message)
+                    .subject(subject)
                     .topicArn(topicArn)
                     .messageAttributes(messageAttributes)
                     .build();
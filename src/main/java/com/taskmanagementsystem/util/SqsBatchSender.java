@@ -0,0 +1,89 @@
+package com.taskmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+/**
+ * Buffers SQS messages per queue and sends them with SendMessageBatch. Besides full batches, a
+ * queue is sent once its oldest message has waited SQS_BATCH_LINGER_MS; see {@link BatchSender}
+ * for batching and retries.
+ */
+public class SqsBatchSender extends BatchSender<SendMessageBatchRequestEntry> {
+
+    private static final long DEFAULT_LINGER_MILLIS = 100;
+
+    private final SqsClient sqsClient;
+
+    public SqsBatchSender(SqsClient sqsClient) {
+        this(sqsClient, readLingerMillis());
+    }
+
+    public SqsBatchSender(SqsClient sqsClient, long lingerMillis) {
+        super("SQS batch send", "m", lingerMillis);
+        this.sqsClient = sqsClient;
+    }
+
+    /**
+     * Queues a message and returns its entry id, which {@link #flush} reports back on failure.
+     * The group and deduplication ids are only needed for FIFO queues and may be null.
+     */
+    public String add(String queueUrl, String messageBody, String messageGroupId, String deduplicationId) {
+        return add(queueUrl, id -> SendMessageBatchRequestEntry.builder()
+                .id(id)
+                .messageBody(messageBody)
+                .messageGroupId(messageGroupId)
+                .messageDeduplicationId(deduplicationId)
+                .build());
+    }
+
+    @Override
+    protected BatchResult sendBatch(String queueUrl, List<SendMessageBatchRequestEntry> entries) {
+        SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                .queueUrl(queueUrl)
+                .entries(entries)
+                .build());
+
+        List<EntryError> failed = new ArrayList<>();
+        for (BatchResultErrorEntry error : response.failed()) {
+            failed.add(new EntryError(error.id(), Boolean.TRUE.equals(error.senderFault()), error.code(), error.message()));
+        }
+        return new BatchResult(response.successful().size(), failed);
+    }
+
+    @Override
+    protected String idOf(SendMessageBatchRequestEntry entry) {
+        return entry.id();
+    }
+
+    @Override
+    protected int sizeOf(SendMessageBatchRequestEntry entry) {
+        // SQS counts the body and every attribute's name, type and value towards the limit
+        int size = bytes(entry.messageBody());
+        for (Map.Entry<String, MessageAttributeValue> attribute : entry.messageAttributes().entrySet()) {
+            MessageAttributeValue value = attribute.getValue();
+            size += bytes(attribute.getKey()) + bytes(value.dataType()) + bytes(value.stringValue());
+            if (value.binaryValue() != null) {
+                size += value.binaryValue().asByteArray().length;
+            }
+        }
+        return size;
+    }
+
+    private static int bytes(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long readLingerMillis() {
+        String value = System.getenv("SQS_BATCH_LINGER_MS");
+        return value == null || value.isEmpty() ? DEFAULT_LINGER_MILLIS : Long.parseLong(value);
+    }
+}
@@ -1,9 +1,9 @@
 package com.taskmanagementsystem.util;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
 public class SqsMessenger {
 
@@ -11,26 +11,37 @@ public class SqsMessenger {
     private final ObjectMapper objectMapper;
 
     public SqsMessenger() {
-        this.sqsClient = SqsClient.create();
+        this.sqsClient = AwsClients.sqs();
         this.objectMapper = new ObjectMapper();
     }
 
+    /**
+     * Starts a batch for handlers that send several messages per invocation.
+     * The batch shares this messenger's client and must be flushed before the handler returns.
+     */
+    public SqsBatchSender newBatch() {
+        return new SqsBatchSender(sqsClient);
+    }
+
     public void sendTaskAssignmentMessage(String queueUrl, TaskAssignmentMessage message, String taskId, Context context) {
         try {
-            String messageBody = objectMapper.writeValueAsString(message);
-
-            SendMessageRequest sendRequest = SendMessageRequest.builder()
-                    .queueUrl(queueUrl)
-                    .messageBody(messageBody)
-                    .messageGroupId("taskAssignments")
-                    .messageDeduplicationId(taskId + "-" + System.currentTimeMillis())
-                    .build();
-
-            sqsClient.sendMessage(sendRequest);
-            context.getLogger().log("SQS message sent: " + messageBody);
+            SqsBatchSender batch = newBatch();
+            queueTaskAssignmentMessage(batch, queueUrl, message, taskId);
+            if (batch.flush(context).isEmpty()) {
+                context.getLogger().log("SQS message sent for task: " + taskId);
+            }
 
         } catch (Exception e) {
             context.getLogger().log("Error sending message to SQS: " + e.getMessage());
         }
     }
+
+    /**
+     * Adds a task assignment message to a batch and returns its entry id.
+     */
+    public String queueTaskAssignmentMessage(SqsBatchSender batch, String queueUrl, TaskAssignmentMessage message,
+                                             String taskId) throws JsonProcessingException {
+        String messageBody = objectMapper.writeValueAsString(message);
+        return batch.add(queueUrl, messageBody, "taskAssignments", taskId + "-" + System.currentTimeMillis());
+    }
 }
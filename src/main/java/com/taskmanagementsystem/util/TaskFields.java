@@ -0,0 +1,80 @@
+package com.taskmanagementsystem.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.taskmanagementsystem.entities.Tasks;
+
+/**
+ * Handles the fields query parameter on the task read endpoints.
+ *
+ * The requested names are checked against an allow-list of task attributes, then used both as
+ * the DynamoDB projection and as a Jackson property filter. Task attributes and JSON properties
+ * have the same names, so one list drives both.
+ */
+public final class TaskFields {
+
+    public static final Set<String> ALLOWED = Set.of(
+            "taskId", "name", "description", "status", "deadline", "responsibility",
+            "assignedUserEmail", "assignedUserId", "completedAt", "expiredAt", "userComment", "createdBy",
+            "createdAt", "updatedAt", "isClosed", "closedAt", "adminComment", "version");
+
+    private static final String FILTER_ID = "taskFields";
+
+    private TaskFields() {
+    }
+
+    /**
+     * Parses a comma-separated fields parameter.
+     *
+     * @return the requested fields in order, or null if the parameter is absent (all fields)
+     * @throws IllegalArgumentException if a name is not a task attribute
+     */
+    public static Set<String> parse(String fieldsParam) {
+        if (fieldsParam == null || fieldsParam.isBlank()) {
+            return null;
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : fieldsParam.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALLOWED.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            fields.add(name);
+        }
+        return fields.isEmpty() ? null : Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Creates an ObjectMapper on which tasks can be filtered with {@link #writer}. Other mappers
+     * keep serializing tasks in full without needing a filter provider.
+     */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper().addMixIn(Tasks.class, FilteredTask.class);
+    }
+
+    /**
+     * Returns a writer that serializes only the given task properties, or all of them when
+     * fields is null. The mapper must come from {@link #objectMapper()}.
+     */
+    public static ObjectWriter writer(ObjectMapper objectMapper, Set<String> fields) {
+        SimpleBeanPropertyFilter filter = fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        return objectMapper.writer(new SimpleFilterProvider().addFilter(FILTER_ID, filter));
+    }
+
+    @JsonFilter(FILTER_ID)
+    private interface FilteredTask {
+    }
+}
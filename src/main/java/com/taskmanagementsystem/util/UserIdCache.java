@@ -0,0 +1,110 @@
+package com.taskmanagementsystem.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based LRU cache of email to userId lookups.
+ *
+ * Held in a static field so it survives across invocations of a warm container. Emails that
+ * are confirmed not to exist are cached as negative entries with a shorter TTL so a missing
+ * user does not trigger a query on every notification. Lookup errors are never cached.
+ */
+public class UserIdCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final long DEFAULT_NEGATIVE_TTL_MILLIS = 60 * 1000L;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserIdCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserIdCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static UserIdCache fromEnvironment() {
+        return new UserIdCache(
+                readInt("USER_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES),
+                readLong("USER_CACHE_TTL_MS", DEFAULT_TTL_MILLIS),
+                readLong("USER_CACHE_NEGATIVE_TTL_MS", DEFAULT_NEGATIVE_TTL_MILLIS));
+    }
+
+    /**
+     * Returns the cached lookup for an email, or null on a miss.
+     * A hit for an email known not to exist returns a {@link Lookup} whose userId is null.
+     */
+    public Lookup get(String email) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return new Lookup(entry.userId);
+            }
+            if (entry != null) {
+                entries.remove(email);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String email, String userId) {
+        long ttl = userId != null ? ttlMillis : negativeTtlMillis;
+        synchronized (entries) {
+            entries.put(email, new Entry(userId, System.currentTimeMillis() + ttl));
+        }
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Result of a cache hit; userId is null when the email is known not to belong to a user.
+     */
+    public record Lookup(String userId) {}
+
+    private record Entry(String userId, long expiresAt) {}
+
+    private static int readInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static long readLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -1,38 +1,138 @@
 package com.taskmanagementsystem.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.QueryRequest;
-import com.amazonaws.services.dynamodbv2.model.QueryResult;
 import com.amazonaws.services.lambda.runtime.Context;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.UserRepository;
 
 public class UserUtils {
 
-    public static String getUserIdByEmail(AmazonDynamoDB dynamoDbClient, String userTableName, String email, Context context) {
-        try {
-            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-            expressionAttributeValues.put(":email", new AttributeValue().withS(email));
-
-            QueryRequest queryRequest = new QueryRequest()
-                    .withTableName(userTableName)
-                    .withIndexName("EmailIndex")
-                    .withKeyConditionExpression("email = :email")
-                    .withExpressionAttributeValues(expressionAttributeValues);
-
-            QueryResult result = dynamoDbClient.query(queryRequest);
-            if (result.getItems().isEmpty()) {
-                context.getLogger().log("No user found for email: " + email);
-                return null;
-            }
+    private static final int MAX_CONCURRENT_LOOKUPS = 8;
 
-            return result.getItems().get(0).get("userId").getS();
+    // Lives for the lifetime of the container, so warm invocations reuse earlier lookups
+    private static final UserIdCache userIdCache = UserIdCache.fromEnvironment();
+
+    /**
+     * Looks up the userId for an email.
+     *
+     * @return the userId, or null if no user has this email
+     * @throws UserLookupException if the Users table could not be queried; nothing is cached
+     */
+    public static String getUserIdByEmail(UserRepository userRepository, String email, Context context) {
+        if (email == null || email.isEmpty()) {
+            return null;
+        }
+
+        UserIdCache.Lookup cached = userIdCache.get(email);
+        if (cached != null) {
+            return cached.userId();
+        }
 
+        String userId;
+        try {
+            userId = userRepository.findUserIdByEmail(email);
         } catch (Exception e) {
             context.getLogger().log("Error querying UserTable: " + e.getMessage());
-            return null;
+            throw new UserLookupException(email, e);
+        }
+        userIdCache.put(email, userId);
+        if (userId == null) {
+            context.getLogger().log("No user found for email: " + email);
         }
+        return userId;
+    }
+
+    /**
+     * Resolves many emails at once. Duplicates are looked up once, cache hits are served
+     * locally and the remaining misses are queried concurrently.
+     *
+     * @return email to userId for every email that belongs to a user. An email whose lookup
+     *         failed is missing as well; use the overload taking failedEmails to tell them apart.
+     */
+    public static Map<String, String> getUserIdsByEmail(UserRepository userRepository, Collection<String> emails,
+                                                        Context context) {
+        return getUserIdsByEmail(userRepository, emails, context, new HashSet<>());
+    }
+
+    /**
+     * Resolves many emails at once, adding the emails whose lookup failed to failedEmails.
+     * Failures are not cached, so the next lookup queries them again.
+     *
+     * @return email to userId for every email that belongs to a user
+     */
+    public static Map<String, String> getUserIdsByEmail(UserRepository userRepository, Collection<String> emails,
+                                                        Context context, Set<String> failedEmails) {
+        Map<String, String> userIds = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        Set<String> distinctEmails = new LinkedHashSet<>(emails);
+        for (String email : distinctEmails) {
+            if (email == null || email.isEmpty()) {
+                continue;
+            }
+            UserIdCache.Lookup cached = userIdCache.get(email);
+            if (cached == null) {
+                misses.add(email);
+            } else if (cached.userId() != null) {
+                userIds.put(email, cached.userId());
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_LOOKUPS, misses.size()));
+            try {
+                Map<String, Future<String>> lookups = new HashMap<>();
+                for (String email : misses) {
+                    lookups.put(email, executor.submit(() -> userRepository.findUserIdByEmail(email)));
+                }
+
+                for (Map.Entry<String, Future<String>> lookup : lookups.entrySet()) {
+                    try {
+                        String userId = lookup.getValue().get();
+                        userIdCache.put(lookup.getKey(), userId);
+                        if (userId != null) {
+                            userIds.put(lookup.getKey(), userId);
+                        } else {
+                            context.getLogger().log("No user found for email: " + lookup.getKey());
+                        }
+                    } catch (ExecutionException e) {
+                        context.getLogger().log("Error querying UserTable: " + e.getCause().getMessage());
+                        failedEmails.add(lookup.getKey());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (String email : misses) {
+                    if (!userIds.containsKey(email)) {
+                        failedEmails.add(email);
+                    }
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        context.getLogger().log(String.format("Resolved %d distinct emails (%d queried); user cache hits=%d misses=%d size=%d",
+                distinctEmails.size(), misses.size(), userIdCache.getHits(), userIdCache.getMisses(), userIdCache.size()));
+        return userIds;
+    }
+
+    /**
+     * Drops a cached lookup, e.g. after a user is created so the next lookup sees them.
+     */
+    public static void invalidateUser(String email) {
+        userIdCache.invalidate(email);
     }
 }
@@ -0,0 +1,54 @@
+package com.taskmanagementsystem.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TaskStatusTest {
+
+    @Test
+    void anyTaskCanBeReopened() {
+        assertEquals(Set.of("open", "OPEN", "completed", "complete", "expired", "closed"),
+                TaskStatus.allowedPrevious(TaskStatus.OPEN));
+    }
+
+    @Test
+    void onlyOpenTasksCanBeCompletedOrExpire() {
+        assertEquals(Set.of("open", "OPEN"), TaskStatus.allowedPrevious(TaskStatus.COMPLETED));
+        assertEquals(Set.of("open", "OPEN"), TaskStatus.allowedPrevious(TaskStatus.EXPIRED));
+    }
+
+    @Test
+    void closedTasksCannotBeClosedAgain() {
+        assertEquals(Set.of("open", "OPEN", "completed", "complete", "expired"),
+                TaskStatus.allowedPrevious(TaskStatus.CLOSED));
+    }
+
+    @Test
+    void rejectsUnknownTargets() {
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.allowedPrevious("OPEN"));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.allowedPrevious("archived"));
+    }
+
+    @Test
+    void canonicalMapsLegacySpellings() {
+        assertEquals(TaskStatus.OPEN, TaskStatus.canonical("OPEN"));
+        assertEquals(TaskStatus.COMPLETED, TaskStatus.canonical("complete"));
+        assertEquals(TaskStatus.COMPLETED, TaskStatus.canonical("Completed"));
+        assertEquals(TaskStatus.EXPIRED, TaskStatus.canonical("EXPIRED"));
+        assertEquals(TaskStatus.CLOSED, TaskStatus.canonical("closed"));
+        assertNull(TaskStatus.canonical("archived"));
+        assertNull(TaskStatus.canonical(null));
+    }
+
+    @Test
+    void storedValuesIncludeLegacySpellings() {
+        assertEquals(Set.of("open", "OPEN"), TaskStatus.storedValues(TaskStatus.OPEN));
+        assertEquals(Set.of("completed", "complete"), TaskStatus.storedValues(TaskStatus.COMPLETED));
+        assertEquals(Set.of("closed"), TaskStatus.storedValues(TaskStatus.CLOSED));
+    }
+}
@@ -0,0 +1,134 @@
+package com.taskmanagementsystem.notifications;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.UserRepository;
+import com.taskmanagementsystem.services.TaskService;
+import com.taskmanagementsystem.util.SnsBatchPublisher;
+import com.taskmanagementsystem.util.SnsPublisher;
+
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+
+class ProcessTaskQueueHandlerTest {
+
+    private TaskService taskService;
+    private Context context;
+    private ProcessTaskQueueHandler handler;
+    private final List<String> published = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> failingTasks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        taskService = mock(TaskService.class);
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+
+        SnsClient snsClient = mock(SnsClient.class);
+        when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+            PublishBatchRequest request = invocation.getArgument(0);
+            PublishBatchResponse.Builder response = PublishBatchResponse.builder();
+            List<PublishBatchResultEntry> successful = new ArrayList<>();
+            List<BatchResultErrorEntry> failed = new ArrayList<>();
+            for (PublishBatchRequestEntry entry : request.publishBatchRequestEntries()) {
+                if (failingTasks.stream().anyMatch(name -> entry.message().contains(name))) {
+                    failed.add(BatchResultErrorEntry.builder().id(entry.id()).senderFault(true).code("Invalid").build());
+                } else {
+                    published.add(entry.message().lines().findFirst().orElseThrow());
+                    successful.add(PublishBatchResultEntry.builder().id(entry.id()).build());
+                }
+            }
+            return response.successful(successful).failed(failed).build();
+        });
+        SnsPublisher publisher = mock(SnsPublisher.class);
+        when(publisher.newBatch()).thenAnswer(invocation -> new SnsBatchPublisher(snsClient));
+
+        handler = new ProcessTaskQueueHandler(taskService, mock(UserRepository.class), publisher, "assignment-topic");
+    }
+
+    private void task(String taskId, String name) {
+        when(taskService.getTask(taskId)).thenReturn(Tasks.builder().taskId(taskId).name(name)
+                .description("d").deadline(0L).assignedUserId("user-" + taskId).build());
+    }
+
+    private static SQSEvent.SQSMessage message(String messageId, String taskId, String groupId) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(messageId);
+        message.setBody("{\"taskId\": \"" + taskId + "\"}");
+        if (groupId != null) {
+            message.setAttributes(Map.of("MessageGroupId", groupId));
+        }
+        return message;
+    }
+
+    private List<String> failedIds(SQSEvent.SQSMessage... messages) {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(List.of(messages));
+        SQSBatchResponse response = handler.handleRequest(event, context);
+        List<String> ids = new ArrayList<>();
+        for (SQSBatchResponse.BatchItemFailure failure : response.getBatchItemFailures()) {
+            ids.add(failure.getItemIdentifier());
+        }
+        return ids;
+    }
+
+    @Test
+    void groupStopsAtItsFirstUnsentEmail() {
+        task("t1", "Task one");
+        task("t2", "Task two");
+        task("t3", "Task three");
+        failingTasks.add("Task two");
+
+        List<String> failed = failedIds(message("m1", "t1", "g"), message("m2", "t2", "g"), message("m3", "t3", "g"));
+
+        assertEquals(List.of("m2", "m3"), failed);
+        // m3 is redelivered, so its email must not have gone out yet
+        assertEquals(List.of("New task assigned: Task one"), published);
+    }
+
+    @Test
+    void failedMessageDoesNotHoldBackOtherGroups() {
+        when(taskService.getTask("a1")).thenThrow(new IllegalStateException("read failed"));
+        task("a2", "Task a2");
+        task("b1", "Task b1");
+        task("b2", "Task b2");
+
+        List<String> failed = failedIds(message("ma1", "a1", "a"), message("mb1", "b1", "b"),
+                message("ma2", "a2", "a"), message("mb2", "b2", "b"));
+
+        assertEquals(List.of("ma1", "ma2"), failed);
+        assertEquals(List.of("New task assigned: Task b1", "New task assigned: Task b2"), published);
+    }
+
+    @Test
+    void messagesWithoutAGroupFailAlone() {
+        task("t1", "Task one");
+        task("t2", "Task two");
+        failingTasks.add("Task one");
+
+        List<String> failed = failedIds(message("m1", "t1", null), message("m2", "t2", null));
+
+        assertEquals(List.of("m1"), failed);
+        assertEquals(List.of("New task assigned: Task two"), published);
+    }
+}
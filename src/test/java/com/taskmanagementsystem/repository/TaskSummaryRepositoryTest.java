@@ -0,0 +1,70 @@
+package com.taskmanagementsystem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+class TaskSummaryRepositoryTest {
+
+    private static Map<String, AttributeValue> item(String summaryId, long open, long completed) {
+        return Map.of(
+                "summaryId", AttributeValue.builder().s(summaryId).build(),
+                "open", AttributeValue.builder().n(String.valueOf(open)).build(),
+                "completed", AttributeValue.builder().n(String.valueOf(completed)).build());
+    }
+
+    @Test
+    void globalCountsGoToOneOfTheShards() {
+        TaskSummaryRepository repository = new TaskSummaryRepository(mock(DynamoDbClient.class), "Summary", 4);
+        Set<String> shards = new HashSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            List<TransactWriteItem> items = repository.transition("open", "user@example.com", "completed", "user@example.com");
+            assertEquals(2, items.size());
+            shards.add(items.get(0).update().key().get("summaryId").s());
+            assertEquals("user#user@example.com", items.get(1).update().key().get("summaryId").s());
+        }
+
+        assertEquals(Set.of("global#0", "global#1", "global#2", "global#3"), shards);
+    }
+
+    @Test
+    void globalReadSumsTheShardsAndTheUnshardedItem() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("Summary", List.of(item("global", 5, 1), item("global#0", 2, 0), item("global#2", -1, 3))))
+                .build());
+        TaskSummaryRepository repository = new TaskSummaryRepository(client, "Summary", 3);
+
+        Map<String, Long> counts = repository.getCounts(TaskSummaryRepository.GLOBAL);
+
+        assertEquals(6L, counts.get("open"));
+        assertEquals(4L, counts.get("completed"));
+        assertEquals(0L, counts.get("expired"));
+        assertEquals(0L, counts.get("closed"));
+
+        ArgumentCaptor<BatchGetItemRequest> request = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(client).batchGetItem(request.capture());
+        Set<String> keys = new HashSet<>();
+        request.getValue().requestItems().get("Summary").keys().forEach(key -> keys.add(key.get("summaryId").s()));
+        assertTrue(keys.containsAll(Set.of("global", "global#0", "global#1", "global#2")));
+        assertEquals(4, keys.size());
+    }
+}
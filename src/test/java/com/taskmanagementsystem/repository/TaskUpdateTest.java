@@ -0,0 +1,173 @@
+package com.taskmanagementsystem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+class TaskUpdateTest {
+
+    private static final Map<String, AttributeValue> KEY = TaskRepository.key("task-1");
+
+    @Test
+    void buildsSetAndConditionWithPlaceholders() {
+        UpdateItemRequest request = new TaskUpdate()
+                .set("status", "completed")
+                .requireEquals("assignedUserEmail", "user@example.com")
+                .set("updatedAt", 5L)
+                .toRequest("Tasks", KEY);
+
+        assertEquals("SET #a0 = :v0, #a2 = :v2, #version = if_not_exists(#version, :zero) + :one",
+                request.updateExpression());
+        assertEquals("attribute_exists(#taskId) AND #a1 = :v1", request.conditionExpression());
+
+        Map<String, String> names = request.expressionAttributeNames();
+        assertEquals("status", names.get("#a0"));
+        assertEquals("assignedUserEmail", names.get("#a1"));
+        assertEquals("updatedAt", names.get("#a2"));
+        assertEquals("version", names.get("#version"));
+        assertEquals("taskId", names.get("#taskId"));
+
+        Map<String, AttributeValue> values = request.expressionAttributeValues();
+        assertEquals("completed", values.get(":v0").s());
+        assertEquals("user@example.com", values.get(":v1").s());
+        assertEquals("5", values.get(":v2").n());
+        assertEquals("0", values.get(":zero").n());
+        assertEquals("1", values.get(":one").n());
+        assertEquals("Tasks", request.tableName());
+    }
+
+    @Test
+    void reusesTheNamePlaceholderOfAnAttribute() {
+        UpdateItemRequest request = new TaskUpdate()
+                .set("status", "closed")
+                .requireIn("status", List.of("open", "OPEN"))
+                .toRequest("Tasks", KEY);
+
+        assertEquals("attribute_exists(#taskId) AND #a0 IN (:v1, :v2)", request.conditionExpression());
+        assertEquals(3, request.expressionAttributeNames().size());
+    }
+
+    @Test
+    void appendsRemoveClause() {
+        UpdateItemRequest request = new TaskUpdate()
+                .set("status", "closed")
+                .remove("openDeadlineBucket")
+                .toRequest("Tasks", KEY);
+
+        assertEquals("SET #a0 = :v0, #version = if_not_exists(#version, :zero) + :one REMOVE #a1",
+                request.updateExpression());
+        assertEquals("openDeadlineBucket", request.expressionAttributeNames().get("#a1"));
+    }
+
+    @Test
+    void versionZeroRequiresMissingVersion() {
+        UpdateItemRequest request = new TaskUpdate()
+                .set("name", "renamed")
+                .requireVersion(0)
+                .toRequest("Tasks", KEY);
+
+        assertEquals("attribute_exists(#taskId) AND attribute_not_exists(#a1)", request.conditionExpression());
+        assertEquals("version", request.expressionAttributeNames().get("#a1"));
+    }
+
+    @Test
+    void versionRequiresEqualVersion() {
+        UpdateItemRequest request = new TaskUpdate()
+                .set("name", "renamed")
+                .requireVersion(3)
+                .toRequest("Tasks", KEY);
+
+        assertEquals("attribute_exists(#taskId) AND #a1 = :v1", request.conditionExpression());
+        assertEquals("version", request.expressionAttributeNames().get("#a1"));
+        assertEquals("3", request.expressionAttributeValues().get(":v1").n());
+    }
+
+    @Test
+    void transactUpdateChecksObservedVersion() {
+        TaskUpdate update = new TaskUpdate().set("status", "open");
+
+        Update unversioned = update.toTransactUpdate("Tasks", KEY, 0);
+        assertEquals("attribute_exists(#taskId) AND attribute_not_exists(#version)", unversioned.conditionExpression());
+        assertNull(unversioned.expressionAttributeValues().get(":observedVersion"));
+
+        Update versioned = update.toTransactUpdate("Tasks", KEY, 4);
+        assertEquals("attribute_exists(#taskId) AND #version = :observedVersion", versioned.conditionExpression());
+        assertEquals("4", versioned.expressionAttributeValues().get(":observedVersion").n());
+    }
+
+    @Test
+    void buildingTwiceGivesTheSameExpressions() {
+        TaskUpdate update = new TaskUpdate().set("status", "open").requireVersion(2);
+
+        UpdateItemRequest first = update.toRequest("Tasks", KEY);
+        UpdateItemRequest second = update.toRequest("Tasks", KEY);
+        update.toTransactUpdate("Tasks", KEY, 2);
+
+        assertEquals(first.updateExpression(), second.updateExpression());
+        assertEquals(first.conditionExpression(), second.conditionExpression());
+        assertEquals(first.expressionAttributeValues().keySet(), second.expressionAttributeValues().keySet());
+    }
+
+    @Test
+    void applyToSetsRemovesAndIncrementsVersion() {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("taskId", AttributeValue.builder().s("task-1").build());
+        item.put("status", AttributeValue.builder().s("open").build());
+        item.put("openDeadlineBucket", AttributeValue.builder().s("2024-03-05T14").build());
+        item.put("version", AttributeValue.builder().n("2").build());
+
+        Map<String, AttributeValue> updated = new TaskUpdate()
+                .set("status", "completed")
+                .remove("openDeadlineBucket")
+                .applyTo(item);
+
+        assertEquals("task-1", updated.get("taskId").s());
+        assertEquals("completed", updated.get("status").s());
+        assertFalse(updated.containsKey("openDeadlineBucket"));
+        assertEquals("3", updated.get("version").n());
+        // The stored item is left as it was
+        assertEquals("open", item.get("status").s());
+        assertEquals("2", item.get("version").n());
+    }
+
+    @Test
+    void applyToStartsUnversionedTasksAtOne() {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("taskId", AttributeValue.builder().s("task-1").build());
+
+        Map<String, AttributeValue> updated = new TaskUpdate().set("isClosed", true).applyTo(item);
+
+        assertTrue(updated.get("isClosed").bool());
+        assertEquals("1", updated.get("version").n());
+        assertEquals(0, TaskUpdate.versionOf(item));
+    }
+
+    @Test
+    void lastChangeToAnAttributeWins() {
+        TaskUpdate update = new TaskUpdate().set("adminComment", "first").remove("adminComment");
+        assertTrue(update.changes("adminComment"));
+        assertFalse(update.applyTo(Map.of("adminComment", AttributeValue.builder().s("old").build()))
+                .containsKey("adminComment"));
+
+        update.set("adminComment", "second");
+        assertEquals("second", update.applyTo(Map.of()).get("adminComment").s());
+        assertFalse(update.changes("name"));
+    }
+
+    @Test
+    void hasChangesOnlyForSetsAndRemoves() {
+        assertFalse(new TaskUpdate().requireEquals("status", "open").hasChanges());
+        assertTrue(new TaskUpdate().remove("openDeadlineBucket").hasChanges());
+    }
+}
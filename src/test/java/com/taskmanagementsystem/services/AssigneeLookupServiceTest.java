@@ -0,0 +1,53 @@
+package com.taskmanagementsystem.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.UserRepository;
+
+class AssigneeLookupServiceTest {
+
+    private UserRepository userRepository;
+    private Context context;
+    private AssigneeLookupService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        service = new AssigneeLookupService(userRepository, false, null);
+    }
+
+    @Test
+    void failedLookupIsNotAMissingAssignee() {
+        when(userRepository.findUserIdByEmail("flaky-resolve@example.com")).thenThrow(new RuntimeException("throttled"));
+
+        assertThrows(UserLookupException.class, () -> service.resolve("flaky-resolve@example.com", context));
+    }
+
+    @Test
+    void resolveAllSeparatesFailedLookupsFromMissingAssignees() {
+        when(userRepository.findUserIdByEmail("found-all@example.com")).thenReturn("user-1");
+        when(userRepository.findUserIdByEmail("missing-all@example.com")).thenReturn(null);
+        when(userRepository.findUserIdByEmail("flaky-all@example.com")).thenThrow(new RuntimeException("throttled"));
+
+        AssigneeLookupService.Assignees assignees = service.resolveAll(
+                List.of("found-all@example.com", "missing-all@example.com", "flaky-all@example.com"), context);
+
+        assertEquals(Set.of("found-all@example.com"), assignees.found().keySet());
+        assertEquals("user-1", assignees.found().get("found-all@example.com").userId());
+        assertEquals(Set.of("flaky-all@example.com"), assignees.failed());
+    }
+}
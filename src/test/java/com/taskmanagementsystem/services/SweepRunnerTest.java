@@ -0,0 +1,91 @@
+package com.taskmanagementsystem.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.taskmanagementsystem.repository.SweepCheckpointRepository;
+import com.taskmanagementsystem.util.ParallelScanner;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+class SweepRunnerTest {
+
+    private static final ScanRequest TEMPLATE = ScanRequest.builder().tableName("Tasks").build();
+
+    private DynamoDbClient dynamoDbClient;
+    private Context context;
+    private final Set<String> segmentsRead = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        dynamoDbClient = mock(DynamoDbClient.class);
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        when(context.getRemainingTimeInMillis()).thenReturn(60_000);
+    }
+
+    private static Map<String, AttributeValue> item(String taskId) {
+        return Map.of("taskId", AttributeValue.builder().s(taskId).build());
+    }
+
+    private SweepRunner runner(int segments) {
+        return new SweepRunner(new ParallelScanner(dynamoDbClient, segments, 0),
+                mock(SweepCheckpointRepository.class), 10_000);
+    }
+
+    @Test
+    void runAllSweepsEverySegmentThroughTheScanner() {
+        when(dynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            ScanRequest request = invocation.getArgument(0);
+            assertEquals(ReturnConsumedCapacity.TOTAL, request.returnConsumedCapacity());
+            segmentsRead.add(request.segment() + "/" + request.totalSegments());
+            return ScanResponse.builder()
+                    .items(List.of(item("a" + request.segment()), item("b" + request.segment())))
+                    .consumedCapacity(ConsumedCapacity.builder().capacityUnits(1.0).build())
+                    .build();
+        });
+
+        SweepRunner.Result result = runner(3).runAll("expiry", TEMPLATE, context, items -> items.size() - 1);
+
+        assertTrue(result.complete());
+        assertEquals(6, result.scanned());
+        assertEquals(3, result.processed());
+        assertEquals(Set.of("0/3", "1/3", "2/3"), segmentsRead);
+    }
+
+    @Test
+    void failedSegmentLeavesTheSweepIncomplete() {
+        when(dynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            ScanRequest request = invocation.getArgument(0);
+            if (request.segment() == 1) {
+                throw new IllegalStateException("throttled");
+            }
+            return ScanResponse.builder().items(List.of(item("a" + request.segment()))).build();
+        });
+
+        SweepRunner.Result result = runner(2).runAll("expiry", TEMPLATE, context, items -> items.size());
+
+        assertFalse(result.complete());
+        assertEquals(1, result.scanned());
+        assertEquals(1, result.processed());
+    }
+}
@@ -0,0 +1,227 @@
+package com.taskmanagementsystem.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.taskmanagementsystem.entities.Tasks;
+import com.taskmanagementsystem.repository.TaskRepository;
+import com.taskmanagementsystem.repository.TaskUpdate;
+import com.taskmanagementsystem.repository.UserRepository;
+
+class UpdateTaskHandlerTest {
+
+    private TaskRepository taskRepository;
+    private UserRepository userRepository;
+    private Context context;
+    private UpdateTaskHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        userRepository = mock(UserRepository.class);
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        handler = new UpdateTaskHandler(taskRepository, userRepository, "assignment-topic", "complete-topic");
+    }
+
+    private void storedTask(String status, String assignee, long deadline, long version) {
+        Tasks stored = Tasks.builder().taskId("task-1").status(status)
+                .assignedUserEmail(assignee).deadline(deadline).version(version).build();
+        when(taskRepository.findById(eq("task-1"), any())).thenReturn(stored);
+        when(taskRepository.update(eq("task-1"), any(), any())).thenReturn(stored);
+    }
+
+    private APIGatewayProxyResponseEvent adminRequest(String body) {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(Map.of("claims", Map.of("email", "admin@example.com", "custom:role", "admin")));
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withPathParameters(Map.of("taskId", "task-1"))
+                .withRequestContext(requestContext)
+                .withBody(body);
+        return handler.handleRequest(request, context);
+    }
+
+    private TaskUpdate writtenUpdate() {
+        ArgumentCaptor<TaskUpdate> update = ArgumentCaptor.forClass(TaskUpdate.class);
+        verify(taskRepository).update(eq("task-1"), update.capture(), any());
+        return update.getValue();
+    }
+
+    @Test
+    void resendingTheCurrentAssigneeOfAnOpenTaskIsNotAReassignment() {
+        storedTask("open", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest(
+                "{\"assignedUserEmail\": \"user@example.com\", \"name\": \"Renamed\"}");
+
+        assertEquals(200, response.getStatusCode());
+        TaskUpdate update = writtenUpdate();
+        assertTrue(update.changes("name"));
+        assertFalse(update.changes("assignedUserEmail"));
+        assertFalse(update.changes("status"));
+        verify(userRepository, never()).findUserIdByEmail(anyString());
+    }
+
+    @Test
+    void resendingTheCurrentDeadlineDoesNotReopenTheTask() {
+        storedTask("completed", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"deadline\": 100, \"description\": \"More detail\"}");
+
+        assertEquals(200, response.getStatusCode());
+        TaskUpdate update = writtenUpdate();
+        assertTrue(update.changes("description"));
+        assertFalse(update.changes("deadline"));
+        assertFalse(update.changes("status"));
+    }
+
+    @Test
+    void fullFormCompletingWithTheUnchangedDeadlineIsAccepted() {
+        storedTask("open", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"status\": \"completed\", \"deadline\": 100, "
+                + "\"assignedUserEmail\": \"user@example.com\", \"name\": \"Task\"}");
+
+        assertEquals(200, response.getStatusCode());
+        TaskUpdate update = writtenUpdate();
+        assertTrue(update.changes("status"));
+        assertTrue(update.changes("completedAt"));
+        assertFalse(update.changes("deadline"));
+    }
+
+    @Test
+    void onlyUnchangedValuesSucceedWithoutWriting() {
+        storedTask("open", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest(
+                "{\"assignedUserEmail\": \"user@example.com\", \"deadline\": 100, \"version\": 3}");
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"version\": 3"));
+        verify(taskRepository, never()).update(anyString(), any(), any());
+    }
+
+    @Test
+    void onlyUnchangedValuesWithAStaleVersionAreAConflict() {
+        storedTask("open", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"deadline\": 100, \"version\": 2}");
+
+        assertEquals(409, response.getStatusCode());
+        verify(taskRepository, never()).update(anyString(), any(), any());
+    }
+
+    @Test
+    void newDeadlineReopensTheTask() {
+        storedTask("expired", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"deadline\": 200}");
+
+        assertEquals(200, response.getStatusCode());
+        TaskUpdate update = writtenUpdate();
+        assertTrue(update.changes("deadline"));
+        assertTrue(update.changes("status"));
+    }
+
+    @Test
+    void failedAssigneeLookupIsRetryable() {
+        storedTask("closed", "user@example.com", 100L, 3L);
+        when(userRepository.findUserIdByEmail("flaky-update@example.com")).thenThrow(new RuntimeException("throttled"));
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"assignedUserEmail\": \"flaky-update@example.com\"}");
+
+        assertEquals(503, response.getStatusCode());
+        verify(taskRepository, never()).update(anyString(), any(), any());
+    }
+
+    @Test
+    void newDeadlineCannotBeCombinedWithAnotherStatus() {
+        storedTask("open", "user@example.com", 100L, 3L);
+
+        APIGatewayProxyResponseEvent response = adminRequest("{\"status\": \"closed\", \"deadline\": 200}");
+
+        assertEquals(400, response.getStatusCode());
+        verify(taskRepository, never()).update(anyString(), any(), any());
+    }
+
+    private static Tasks task(String status, String assignee, Long version) {
+        return Tasks.builder()
+                .taskId("task-1")
+                .status(status)
+                .assignedUserEmail(assignee)
+                .version(version)
+                .build();
+    }
+
+    @Test
+    void missingTaskIsNotFound() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                null, true, "admin@example.com", null, false, "closed");
+
+        assertEquals(404, response.getStatusCode());
+    }
+
+    @Test
+    void otherUsersTaskIsForbidden() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                task("open", "other@example.com", 1L), false, "user@example.com", null, false, "completed");
+
+        assertEquals(403, response.getStatusCode());
+        assertTrue(response.getBody().contains("not assigned to you"));
+    }
+
+    @Test
+    void staleVersionIsAConflictWithTheCurrentVersion() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                task("open", "user@example.com", 5L), false, "user@example.com", 4L, false, "completed");
+
+        assertEquals(409, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"currentVersion\": 5"));
+    }
+
+    @Test
+    void versionZeroMatchesAnUnversionedTask() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                task("closed", "user@example.com", null), true, "admin@example.com", 0L, false, "completed");
+
+        // Not a version conflict, so the status transition is what failed
+        assertEquals(409, response.getStatusCode());
+        assertTrue(response.getBody().contains("Cannot change task status from closed to completed"));
+    }
+
+    @Test
+    void reassigningAnOpenTaskIsForbidden() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                task("open", "user@example.com", 2L), true, "admin@example.com", 2L, true, "open");
+
+        assertEquals(403, response.getStatusCode());
+        assertTrue(response.getBody().contains("Only closed or expired tasks can be reassigned"));
+    }
+
+    @Test
+    void disallowedTransitionIsAConflict() {
+        APIGatewayProxyResponseEvent response = UpdateTaskHandler.createConflictResponse(
+                task("expired", "user@example.com", 3L), false, "user@example.com", null, false, "completed");
+
+        assertEquals(409, response.getStatusCode());
+        assertTrue(response.getBody().contains("from expired to completed"));
+    }
+}
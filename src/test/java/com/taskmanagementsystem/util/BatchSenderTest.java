@@ -0,0 +1,181 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import software.amazon.awssdk.core.exception.SdkException;
+
+class BatchSenderTest {
+
+    private Context context;
+
+    @BeforeEach
+    void setUp() {
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    }
+
+    private static String body(int bytes) {
+        return "x".repeat(bytes);
+    }
+
+    @Test
+    void fullBatchIsSentWhenTheTenthEntryIsAdded() {
+        FakeSender sender = new FakeSender();
+        for (int i = 0; i < 9; i++) {
+            sender.add("queue", "m" + i);
+        }
+        assertEquals(0, sender.batches.size());
+
+        sender.add("queue", "m9");
+
+        assertEquals(1, sender.batches.size());
+        assertEquals(10, sender.batches.get(0).size());
+        assertEquals(List.of(), sender.flush(context));
+        assertEquals(1, sender.batches.size());
+    }
+
+    @Test
+    void partialFailureIsRetriedOnItsOwn() {
+        FakeSender sender = new FakeSender();
+        sender.failures.put("flaky", 1);
+        sender.add("queue", "a");
+        sender.add("queue", "flaky");
+        sender.add("queue", "b");
+
+        List<String> failed = sender.flush(context);
+
+        assertEquals(List.of(), failed);
+        assertEquals(List.of(List.of("a", "flaky", "b"), List.of("flaky")), sender.batches);
+    }
+
+    @Test
+    void senderFaultIsNotRetried() {
+        FakeSender sender = new FakeSender();
+        sender.senderFaults.add("bad");
+        sender.add("queue", "a");
+        String badId = sender.add("queue", "bad");
+
+        List<String> failed = sender.flush(context);
+
+        assertEquals(List.of(badId), failed);
+        assertEquals(List.of(List.of("a", "bad")), sender.batches);
+    }
+
+    @Test
+    void entryThatWouldPassTheSizeLimitStartsANewBatch() {
+        FakeSender sender = new FakeSender();
+        String first = body(100 * 1024);
+        String second = body(100 * 1024) + "y";
+        String third = body(100 * 1024) + "z";
+        sender.add("queue", first);
+        sender.add("queue", second);
+        assertEquals(0, sender.batches.size());
+
+        sender.add("queue", third);
+
+        assertEquals(List.of(List.of(first, second)), sender.batches);
+        sender.flush(context);
+        assertEquals(List.of(List.of(first, second), List.of(third)), sender.batches);
+    }
+
+    @Test
+    void destinationsAreBatchedApart() {
+        FakeSender sender = new FakeSender();
+        sender.add("queue-a", "a");
+        sender.add("queue-b", "b");
+
+        sender.flush(context);
+
+        assertEquals(List.of(List.of("a"), List.of("b")), sender.batches);
+        assertEquals(List.of("queue-a", "queue-b"), sender.destinations);
+    }
+
+    @Test
+    void flushReportsFailuresFromEarlierSendsAndFailedRequests() {
+        FakeSender sender = new FakeSender();
+        sender.senderFaults.add("m3");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(sender.add("queue", "m" + i));
+        }
+        sender.throwOn.add("queue-down");
+        String downId = sender.add("queue-down", "lost");
+
+        List<String> failed = sender.flush(context);
+
+        assertEquals(2, failed.size());
+        assertTrue(failed.containsAll(List.of(ids.get(3), downId)));
+        // Every attempt of the failing request is made before giving up
+        assertEquals(3, sender.destinations.stream().filter("queue-down"::equals).count());
+        // Failures are reported once
+        assertEquals(List.of(), sender.flush(context));
+    }
+
+    private record Entry(String id, String body) {}
+
+    /**
+     * Records every batch it is asked to send and fails entries as scripted.
+     */
+    private static class FakeSender extends BatchSender<Entry> {
+
+        private final List<List<String>> batches = new ArrayList<>();
+        private final List<String> destinations = new ArrayList<>();
+        private final Map<String, Integer> failures = new HashMap<>();
+        private final List<String> senderFaults = new ArrayList<>();
+        private final List<String> throwOn = new ArrayList<>();
+
+        FakeSender() {
+            super("Fake batch", "f", Long.MAX_VALUE);
+        }
+
+        String add(String destination, String body) {
+            return add(destination, id -> new Entry(id, body));
+        }
+
+        @Override
+        protected synchronized BatchResult sendBatch(String destination, List<Entry> entries) {
+            destinations.add(destination);
+            if (throwOn.contains(destination)) {
+                throw SdkException.builder().message("unavailable").build();
+            }
+
+            List<String> bodies = new ArrayList<>();
+            List<EntryError> failed = new ArrayList<>();
+            for (Entry entry : entries) {
+                bodies.add(entry.body());
+                if (senderFaults.contains(entry.body())) {
+                    failed.add(new EntryError(entry.id(), true, "InvalidParameter", "rejected"));
+                } else if (failures.getOrDefault(entry.body(), 0) > 0) {
+                    failures.merge(entry.body(), -1, Integer::sum);
+                    failed.add(new EntryError(entry.id(), false, "InternalError", "try again"));
+                }
+            }
+            batches.add(bodies);
+            return new BatchResult(entries.size() - failed.size(), failed);
+        }
+
+        @Override
+        protected String idOf(Entry entry) {
+            return entry.id();
+        }
+
+        @Override
+        protected int sizeOf(Entry entry) {
+            return entry.body().length();
+        }
+    }
+}
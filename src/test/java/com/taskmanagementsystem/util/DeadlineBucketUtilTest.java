@@ -0,0 +1,48 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DeadlineBucketUtilTest {
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test
+    void openTaskFallsInTheUtcHourOfItsDeadline() {
+        assertEquals("2024-03-05T14", DeadlineBucketUtil.bucketFor("open", millis("2024-03-05T14:30:00Z")));
+        assertEquals("2024-03-05T14", DeadlineBucketUtil.bucketFor("OPEN", millis("2024-03-05T14:59:59.999Z")));
+        assertEquals("2024-03-05T15", DeadlineBucketUtil.bucketFor("open", millis("2024-03-05T15:00:00Z")));
+    }
+
+    @Test
+    void otherTasksHaveNoBucket() {
+        assertNull(DeadlineBucketUtil.bucketFor("completed", millis("2024-03-05T14:30:00Z")));
+        assertNull(DeadlineBucketUtil.bucketFor("expired", millis("2024-03-05T14:30:00Z")));
+        assertNull(DeadlineBucketUtil.bucketFor("open", null));
+    }
+
+    @Test
+    void bucketsCoverEveryHourOfTheWindow() {
+        assertEquals(List.of("2024-03-05T13", "2024-03-05T14", "2024-03-05T15", "2024-03-05T16"),
+                DeadlineBucketUtil.bucketsBetween(millis("2024-03-05T13:59:00Z"), millis("2024-03-05T16:00:00Z")));
+    }
+
+    @Test
+    void windowWithinAnHourHasOneBucket() {
+        assertEquals(List.of("2024-03-05T23"),
+                DeadlineBucketUtil.bucketsBetween(millis("2024-03-05T23:10:00Z"), millis("2024-03-05T23:20:00Z")));
+    }
+
+    @Test
+    void bucketsCrossDayBoundaries() {
+        assertEquals(List.of("2024-12-31T23", "2025-01-01T00"),
+                DeadlineBucketUtil.bucketsBetween(millis("2024-12-31T23:30:00Z"), millis("2025-01-01T00:30:00Z")));
+    }
+}
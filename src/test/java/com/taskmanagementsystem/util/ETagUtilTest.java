@@ -0,0 +1,68 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.taskmanagementsystem.entities.Tasks;
+
+class ETagUtilTest {
+
+    private static Tasks task(String taskId, Long version, Long updatedAt) {
+        return Tasks.builder().taskId(taskId).version(version).updatedAt(updatedAt).build();
+    }
+
+    @Test
+    void sameTasksGiveTheSameQuotedETag() {
+        String first = ETagUtil.forTasks(List.of(task("a", 1L, null), task("b", 2L, null)), null, null);
+        String second = ETagUtil.forTasks(List.of(task("a", 1L, null), task("b", 2L, null)), null, null);
+
+        assertEquals(first, second);
+        assertEquals(24, first.length());
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+    }
+
+    @Test
+    void changesWithVersionTokenAndFields() {
+        List<Tasks> tasks = List.of(task("a", 1L, null));
+        String etag = ETagUtil.forTasks(tasks, null, null);
+
+        assertNotEquals(etag, ETagUtil.forTasks(List.of(task("a", 2L, null)), null, null));
+        assertNotEquals(etag, ETagUtil.forTasks(tasks, "token", null));
+        assertNotEquals(etag, ETagUtil.forTasks(tasks, null, List.of("name")));
+        assertNotEquals(etag, ETagUtil.forTasks(List.of(), null, null));
+    }
+
+    @Test
+    void unversionedTasksUseUpdatedAt() {
+        String etag = ETagUtil.forTasks(List.of(task("a", null, 100L)), null, null);
+
+        assertNotEquals(etag, ETagUtil.forTasks(List.of(task("a", null, 200L)), null, null));
+        assertNotEquals(etag, ETagUtil.forTasks(List.of(task("a", 100L, null)), null, null));
+    }
+
+    @Test
+    void matchesIfNoneMatchInAnyCasingAndForm() {
+        String etag = "\"abc\"";
+
+        assertTrue(ETagUtil.matches(Map.of("If-None-Match", "\"abc\""), etag));
+        assertTrue(ETagUtil.matches(Map.of("if-none-match", "W/\"abc\""), etag));
+        assertTrue(ETagUtil.matches(Map.of("If-None-Match", "\"xyz\", \"abc\""), etag));
+        assertTrue(ETagUtil.matches(Map.of("If-None-Match", "*"), etag));
+    }
+
+    @Test
+    void doesNotMatchOtherOrMissingHeaders() {
+        String etag = "\"abc\"";
+
+        assertFalse(ETagUtil.matches(Map.of("If-None-Match", "\"xyz\""), etag));
+        assertFalse(ETagUtil.matches(Map.of("If-Match", "\"abc\""), etag));
+        assertFalse(ETagUtil.matches(null, etag));
+    }
+}
@@ -0,0 +1,77 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JsonStringEscapingWriterTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static String escape(String text) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Writer writer = new JsonStringEscapingWriter(out)) {
+            writer.write(text);
+        }
+        return out.toString();
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndWhitespace() throws IOException {
+        assertEquals("say \\\"hi\\\"", escape("say \"hi\""));
+        assertEquals("C:\\\\tmp", escape("C:\\tmp"));
+        assertEquals("a\\nb\\rc\\td", escape("a\nb\rc\td"));
+    }
+
+    @Test
+    void escapesOtherControlCharactersAsUnicode() throws IOException {
+        assertEquals("\\u0001\\u001f", escape("\u0001\u001f"));
+    }
+
+    @Test
+    void passesOtherCharactersThrough() throws IOException {
+        assertEquals("t\u00e2che \u2713 / <ok>", escape("t\u00e2che \u2713 / <ok>"));
+    }
+
+    @Test
+    void generatedDocumentReadsBackAsAStringField() throws IOException {
+        StringWriter out = new StringWriter();
+        out.write("{\"body\": \"");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(new JsonStringEscapingWriter(out))) {
+            generator.writeStartObject();
+            generator.writeStringField("name", "line one\nline \"two\"");
+            generator.writeEndObject();
+        }
+        out.write("\"}");
+
+        JsonNode envelope = objectMapper.readTree(out.toString());
+        JsonNode body = objectMapper.readTree(envelope.get("body").asText());
+        assertEquals("line one\nline \"two\"", body.get("name").asText());
+    }
+
+    @Test
+    void closeLeavesTheUnderlyingWriterOpen() throws IOException {
+        ClosingTrackingWriter out = new ClosingTrackingWriter();
+        new JsonStringEscapingWriter(out).close();
+
+        assertFalse(out.closed);
+    }
+
+    private static class ClosingTrackingWriter extends StringWriter {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
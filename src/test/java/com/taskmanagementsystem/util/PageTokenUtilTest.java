@@ -0,0 +1,82 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+class PageTokenUtilTest {
+
+    private static String token(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTripsStringAndNumberKeys() {
+        String nextToken = PageTokenUtil.encode(Map.of(
+                "taskId", AttributeValue.builder().s("task-1").build(),
+                "assignedUserEmail", AttributeValue.builder().s("user@example.com").build(),
+                "deadline", AttributeValue.builder().n("1700000000000").build()));
+
+        Map<String, AttributeValue> key = PageTokenUtil.decode(nextToken);
+        assertEquals(3, key.size());
+        assertEquals("task-1", key.get("taskId").s());
+        assertEquals("user@example.com", key.get("assignedUserEmail").s());
+        assertEquals("1700000000000", key.get("deadline").n());
+        assertFalse(nextToken.contains("=") || nextToken.contains("+") || nextToken.contains("/"));
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        assertNull(PageTokenUtil.encode(null));
+        assertNull(PageTokenUtil.encode(Map.of()));
+        assertNull(PageTokenUtil.decode(null));
+        assertNull(PageTokenUtil.decode(""));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.decode(token("[1, 2]")));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.decode(token("{}")));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.decode(token("{\"taskId\": null}")));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.decode(token("{\"taskId\": {\"B\": \"AA\"}}")));
+    }
+
+    @Test
+    void tokenMustCarryTheQueriedPartition() {
+        Map<String, AttributeValue> scanKey = Map.of("taskId", AttributeValue.builder().s("task-1").build());
+        Map<String, AttributeValue> queryKey = Map.of(
+                "taskId", AttributeValue.builder().s("task-1").build(),
+                "assignedUserEmail", AttributeValue.builder().s("user@example.com").build());
+
+        assertTrue(PageTokenUtil.isForPartition(null, "assignedUserEmail", "user@example.com"));
+        assertTrue(PageTokenUtil.isForPartition(queryKey, "assignedUserEmail", "user@example.com"));
+        assertFalse(PageTokenUtil.isForPartition(queryKey, "assignedUserEmail", "other@example.com"));
+        assertFalse(PageTokenUtil.isForPartition(scanKey, "assignedUserEmail", "user@example.com"));
+    }
+
+    @Test
+    void parsesLimitWithinBounds() {
+        assertEquals(50, PageTokenUtil.parseLimit(null, 50, 100));
+        assertEquals(50, PageTokenUtil.parseLimit("", 50, 100));
+        assertEquals(1, PageTokenUtil.parseLimit("1", 50, 100));
+        assertEquals(100, PageTokenUtil.parseLimit("100", 50, 100));
+    }
+
+    @Test
+    void rejectsLimitsOutOfBounds() {
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.parseLimit("0", 50, 100));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.parseLimit("101", 50, 100));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenUtil.parseLimit("ten", 50, 100));
+    }
+}
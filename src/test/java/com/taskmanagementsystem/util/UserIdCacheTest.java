@@ -0,0 +1,76 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class UserIdCacheTest {
+
+    @Test
+    void returnsCachedUserIdAndCountsHitsAndMisses() {
+        UserIdCache cache = new UserIdCache(10, 60_000, 60_000);
+
+        assertNull(cache.get("user@example.com"));
+        cache.put("user@example.com", "user-1");
+
+        assertEquals("user-1", cache.get("user@example.com").userId());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void cachesMissingUsersAsNegativeEntries() {
+        UserIdCache cache = new UserIdCache(10, 60_000, 60_000);
+        cache.put("missing@example.com", null);
+
+        UserIdCache.Lookup lookup = cache.get("missing@example.com");
+        assertNotNull(lookup);
+        assertNull(lookup.userId());
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndRemoved() {
+        UserIdCache cache = new UserIdCache(10, 0, 0);
+        cache.put("user@example.com", "user-1");
+        cache.put("missing@example.com", null);
+
+        assertNull(cache.get("user@example.com"));
+        assertNull(cache.get("missing@example.com"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void negativeEntriesUseTheirOwnTtl() {
+        UserIdCache cache = new UserIdCache(10, 60_000, 0);
+        cache.put("user@example.com", "user-1");
+        cache.put("missing@example.com", null);
+
+        assertNotNull(cache.get("user@example.com"));
+        assertNull(cache.get("missing@example.com"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        UserIdCache cache = new UserIdCache(2, 60_000, 60_000);
+        cache.put("a@example.com", "a");
+        cache.put("b@example.com", "b");
+        cache.get("a@example.com");
+        cache.put("c@example.com", "c");
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a@example.com"));
+        assertNull(cache.get("b@example.com"));
+        assertNotNull(cache.get("c@example.com"));
+    }
+
+    @Test
+    void invalidateRemovesTheEntry() {
+        UserIdCache cache = new UserIdCache(10, 60_000, 60_000);
+        cache.put("user@example.com", "user-1");
+        cache.invalidate("user@example.com");
+
+        assertNull(cache.get("user@example.com"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskmanagementsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.taskmanagementsystem.exception.UserLookupException;
+import com.taskmanagementsystem.repository.UserRepository;
+
+class UserUtilsTest {
+
+    private UserRepository userRepository;
+    private Context context;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        context = mock(Context.class);
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    }
+
+    @Test
+    void failedLookupThrowsAndIsNotCached() {
+        String email = "flaky-single@example.com";
+        when(userRepository.findUserIdByEmail(email))
+                .thenThrow(new RuntimeException("throttled"))
+                .thenReturn("user-1");
+
+        assertThrows(UserLookupException.class, () -> UserUtils.getUserIdByEmail(userRepository, email, context));
+        assertEquals("user-1", UserUtils.getUserIdByEmail(userRepository, email, context));
+        verify(userRepository, times(2)).findUserIdByEmail(email);
+    }
+
+    @Test
+    void bulkLookupReportsFailedEmailsApartFromMissingUsers() {
+        when(userRepository.findUserIdByEmail("found-bulk@example.com")).thenReturn("user-1");
+        when(userRepository.findUserIdByEmail("missing-bulk@example.com")).thenReturn(null);
+        when(userRepository.findUserIdByEmail("flaky-bulk@example.com")).thenThrow(new RuntimeException("throttled"));
+        Set<String> failed = new HashSet<>();
+
+        Map<String, String> userIds = UserUtils.getUserIdsByEmail(userRepository,
+                List.of("found-bulk@example.com", "missing-bulk@example.com", "flaky-bulk@example.com"), context, failed);
+
+        assertEquals(Map.of("found-bulk@example.com", "user-1"), userIds);
+        assertEquals(Set.of("flaky-bulk@example.com"), failed);
+    }
+}